@@ -0,0 +1,91 @@
+package com.aegisql.id_builder.benchmarks;
+
+import com.aegisql.id_builder.impl.AbstractIdGenerator;
+import com.aegisql.id_builder.impl.CachedClock;
+import com.aegisql.id_builder.impl.NanoClock;
+import com.aegisql.id_builder.impl.SubMillisecondIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a clock read, and of getId() with the default and cached clocks.
+ * clock: system - System::currentTimeMillis; ticking:N / onRead:N - CachedClock with N microseconds period;
+ * nano:N - NanoClock re-anchored every N milliseconds, read in nanoseconds, driving a SubMillisecondIdGenerator
+ * with 10 microsecond ticks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClockBenchmark {
+
+	@Param({"system", "ticking:100", "ticking:1000", "onRead:100", "onRead:1000", "nano:1000"})
+	public String clock;
+
+	private CachedClock cachedClock;
+	private NanoClock nanoClock;
+	private AbstractIdGenerator idGenerator;
+
+	@Setup
+	public void setup() {
+		String[] parts = clock.split(":");
+		if (parts[0].equals("nano")) {
+			nanoClock = NanoClock.anchored(Long.parseLong(parts[1]));
+			idGenerator = new SubMillisecondIdGenerator(nanoClock, 10, 1, 8, SubMillisecondIdGenerator.DEFAULT_SEQUENCE_BITS);
+			return;
+		}
+		cachedClock = switch (parts[0]) {
+			case "system" -> null;
+			case "ticking" -> CachedClock.ticking(Long.parseLong(parts[1]));
+			case "onRead" -> CachedClock.refreshedOnRead(Long.parseLong(parts[1]));
+			default -> throw new IllegalArgumentException(clock);
+		};
+		idGenerator = Layouts.idGenerator("decimal:10x8");
+		if (cachedClock != null) {
+			idGenerator.setTimestampSupplier(cachedClock);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (cachedClock != null) {
+			cachedClock.close();
+		}
+	}
+
+	@Benchmark
+	public long read() {
+		if (nanoClock != null) {
+			return nanoClock.nanos();
+		}
+		return cachedClock == null ? System.currentTimeMillis() : cachedClock.secondsAndMillis();
+	}
+
+	@Benchmark
+	@Threads(1)
+	public long getId_1() {
+		return idGenerator.getId();
+	}
+
+	@Benchmark
+	@Threads(8)
+	public long getId_8() {
+		return idGenerator.getId();
+	}
+
+}
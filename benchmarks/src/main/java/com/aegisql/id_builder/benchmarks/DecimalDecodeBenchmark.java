@@ -0,0 +1,98 @@
+package com.aegisql.id_builder.benchmarks;
+
+import com.aegisql.id_builder.impl.DecimalIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decimal decoding by reciprocal multiplication against the division based decoder it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecimalDecodeBenchmark {
+
+	static final int IDS = 1024;
+	static final long _10XX19 = 1000000000000000000L;
+
+	@Param({"decimal:10x4x5", "decimal:10x8"})
+	public String layout;
+
+	DecimalIdGenerator idGenerator;
+	long[] ids;
+	long idCeil;
+	long timeIdBase;
+	long maxHostId;
+
+	@Setup
+	public void setup() {
+		idGenerator = (DecimalIdGenerator) Layouts.idGenerator(layout);
+		ids = idGenerator.reserve(IDS).toArray();
+		idCeil = "decimal:10x8".equals(layout) ? 100_000_000L : 100_000L;
+		timeIdBase = 1_000_000_000L;
+		maxHostId = timeIdBase / idCeil - 1;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(IDS)
+	public void divisionDecode(Blackhole bh) {
+		for (long id : ids) {
+			long adjustTimestamp = 0;
+			if (id < _10XX19) {
+				adjustTimestamp = _10XX19 / timeIdBase;
+				id = _10XX19 + id;
+			}
+			long timestamp = id / timeIdBase;
+			long dcHostId = id - timestamp * timeIdBase;
+			long dcHost = dcHostId / idCeil;
+			long currentId = dcHostId - dcHost * idCeil;
+			bh.consume(timestamp - adjustTimestamp);
+			bh.consume(dcHost >= maxHostId ? -1 : (int) dcHost);
+			bh.consume(currentId);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(IDS)
+	public void reciprocalDecode(Blackhole bh) {
+		for (long id : ids) {
+			bh.consume(idGenerator.timestampOf(id));
+			bh.consume(idGenerator.hostIdOf(id));
+			bh.consume(idGenerator.counterOf(id));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(IDS)
+	public void reciprocalHostId(Blackhole bh) {
+		for (long id : ids) {
+			bh.consume(idGenerator.hostIdOf(id));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(IDS)
+	public void divisionHostId(Blackhole bh) {
+		for (long id : ids) {
+			long dcHost = (id % timeIdBase) / idCeil;
+			bh.consume(dcHost >= maxHostId ? -1 : (int) dcHost);
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.aegisql.id_builder.benchmarks;
+
+import com.aegisql.id_builder.IdSource;
+import com.aegisql.id_builder.impl.AbstractIdGenerator;
+import com.aegisql.id_builder.impl.ConcurrencyMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getId() throughput under contention.
+ * Thread count is fixed per benchmark method; use -t to try other values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GetIdBenchmark {
+
+	@Param({"decimal:10x4x5", "decimal:10x8", "binary:0:0", "binary:8:0", "binary:12:1", "binary:16:4", "old:10x4x5", "old:10x8"})
+	public String layout;
+
+	@Param({"SYNCHRONIZED", "LOCK_FREE"})
+	public String concurrencyMode;
+
+	private IdSource idSource;
+
+	@Setup
+	public void setup() {
+		idSource = Layouts.idSource(layout);
+		if (idSource instanceof AbstractIdGenerator idGenerator) {
+			idGenerator.setConcurrencyMode(ConcurrencyMode.valueOf(concurrencyMode));
+		}
+	}
+
+	@Benchmark
+	@Threads(1)
+	public long getId_1() {
+		return idSource.getId();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public long getId_4() {
+		return idSource.getId();
+	}
+
+	@Benchmark
+	@Threads(16)
+	public long getId_16() {
+		return idSource.getId();
+	}
+
+	@Benchmark
+	@Threads(64)
+	public long getId_64() {
+		return idSource.getId();
+	}
+
+}
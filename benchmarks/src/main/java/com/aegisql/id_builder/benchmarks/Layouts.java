@@ -0,0 +1,61 @@
+package com.aegisql.id_builder.benchmarks;
+
+import com.aegisql.id_builder.IdSource;
+import com.aegisql.id_builder.impl.AbstractIdGenerator;
+import com.aegisql.id_builder.impl.BinaryIdGenerator;
+import com.aegisql.id_builder.impl.DecimalIdGenerator;
+import com.aegisql.id_builder.impl.MillisecondIdGenerator;
+import com.aegisql.id_builder.impl.NanoClock;
+import com.aegisql.id_builder.impl.SubMillisecondIdGenerator;
+import com.aegisql.id_builder.old_impl.TimeHostIdGenerator;
+
+/**
+ * Layouts used by benchmarks.
+ * decimal:10x4x5, decimal:10x8 - DecimalIdGenerator factory layouts;
+ * binary:hostIdBits:timestampExtraBits - BinaryIdGenerator;
+ * millis:hostIdBits - MillisecondIdGenerator with default sequence bits;
+ * submillis:hostIdBits:tickMicros - SubMillisecondIdGenerator with default sequence bits;
+ * old:10x4x5, old:10x8 - deprecated TimeHostIdGenerator baseline.
+ */
+final class Layouts {
+
+	private Layouts() {
+	}
+
+	@SuppressWarnings("deprecation")
+	static IdSource idSource(String layout) {
+		return switch (layout) {
+			case "old:10x4x5" -> TimeHostIdGenerator.idGenerator_10x4x5(1001);
+			case "old:10x8" -> TimeHostIdGenerator.idGenerator_10x8();
+			default -> idGenerator(layout);
+		};
+	}
+
+	static AbstractIdGenerator idGenerator(String layout) {
+		String[] parts = layout.split(":");
+		return switch (parts[0]) {
+			case "decimal" -> switch (parts[1]) {
+				case "10x4x5" -> DecimalIdGenerator.idGenerator_10x4x5(1001);
+				case "10x8" -> DecimalIdGenerator.idGenerator_10x8(1);
+				default -> throw new IllegalArgumentException("Unknown decimal layout " + layout);
+			};
+			case "binary" -> {
+				int hostIdBits = Integer.parseInt(parts[1]);
+				short timestampExtraBits = Short.parseShort(parts[2]);
+				yield new BinaryIdGenerator(System.currentTimeMillis() / 1000, timestampExtraBits, (1 << hostIdBits) - 1 >> 1, hostIdBits);
+			}
+			case "millis" -> {
+				int hostIdBits = Integer.parseInt(parts[1]);
+				yield new MillisecondIdGenerator((1 << hostIdBits) - 1 >> 1, hostIdBits);
+			}
+			case "submillis" -> {
+				int hostIdBits = Integer.parseInt(parts[1]);
+				long tickMicros = Long.parseLong(parts[2]);
+				yield new SubMillisecondIdGenerator(NanoClock.anchored(), tickMicros, (1 << hostIdBits) - 1 >> 1, hostIdBits,
+						SubMillisecondIdGenerator.DEFAULT_SEQUENCE_BITS);
+			}
+			default -> throw new IllegalArgumentException("Unknown layout " + layout);
+		};
+	}
+
+}
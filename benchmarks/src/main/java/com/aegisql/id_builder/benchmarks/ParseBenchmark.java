@@ -0,0 +1,74 @@
+package com.aegisql.id_builder.benchmarks;
+
+import com.aegisql.id_builder.IdParts;
+import com.aegisql.id_builder.impl.AbstractIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * parse(long) and bulk parse cost per ID for decimal and binary layouts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+	static final int IDS = 1024;
+
+	@Param({"decimal:10x4x5", "decimal:10x8", "binary:0:0", "binary:8:0", "binary:12:1", "binary:16:4"})
+	public String layout;
+
+	AbstractIdGenerator idGenerator;
+	long[] ids;
+	long[] timestamps = new long[IDS];
+	int[] hostIds = new int[IDS];
+	long[] currentIds = new long[IDS];
+
+	@Setup
+	public void setup() {
+		idGenerator = Layouts.idGenerator(layout);
+		ids = idGenerator.reserve(IDS).toArray();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(IDS)
+	public void parse(Blackhole bh) {
+		for (long id : ids) {
+			IdParts parts = idGenerator.parse(id);
+			bh.consume(parts);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(IDS)
+	public void bulkParse(Blackhole bh) {
+		idGenerator.parse(ids, timestamps, hostIds, currentIds);
+		bh.consume(timestamps);
+		bh.consume(hostIds);
+		bh.consume(currentIds);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(IDS)
+	public void bulkParseHostIds(Blackhole bh) {
+		idGenerator.parse(ids, null, hostIds, null);
+		bh.consume(hostIds);
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.aegisql.id_builder.benchmarks;
+
+import com.aegisql.id_builder.IdSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IdSource.asStream() throughput, sequential and parallel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamBenchmark {
+
+	static final int IDS = 10000;
+
+	@Param({"decimal:10x8", "binary:0:0", "binary:12:1", "old:10x8"})
+	public String layout;
+
+	private IdSource idSource;
+
+	@Setup
+	public void setup() {
+		idSource = Layouts.idSource(layout);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(IDS)
+	public long asStream() {
+		return idSource.asStream().limit(IDS).max().orElse(0);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(IDS)
+	public long asParallelStream() {
+		return idSource.asStream().parallel().limit(IDS).max().orElse(0);
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.aegisql.id_builder.benchmarks;
+
+import com.aegisql.id_builder.IdSource;
+import com.aegisql.id_builder.impl.AbstractIdGenerator;
+import com.aegisql.id_builder.impl.ConcurrencyMode;
+import com.aegisql.id_builder.impl.ThreadLocalIdSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getId() throughput of a shared generator against a ThreadLocalIdSource over the same layout.
+ * source: SYNCHRONIZED / LOCK_FREE - the generator in that concurrency mode;
+ * threadLocal:N - ThreadLocalIdSource reserving blocks of N IDs from a synchronized generator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadLocalIdSourceBenchmark {
+
+	@Param({"decimal:10x8", "binary:0:0"})
+	public String layout;
+
+	@Param({"SYNCHRONIZED", "LOCK_FREE", "threadLocal:64", "threadLocal:1024"})
+	public String source;
+
+	private IdSource idSource;
+
+	@Setup
+	public void setup() {
+		AbstractIdGenerator idGenerator = Layouts.idGenerator(layout);
+		if (source.startsWith("threadLocal:")) {
+			idSource = new ThreadLocalIdSource(idGenerator, Integer.parseInt(source.substring("threadLocal:".length())));
+		} else {
+			idGenerator.setConcurrencyMode(ConcurrencyMode.valueOf(source));
+			idSource = idGenerator;
+		}
+	}
+
+	@Benchmark
+	@Threads(1)
+	public long getId_1() {
+		return idSource.getId();
+	}
+
+	@Benchmark
+	@Threads(8)
+	public long getId_8() {
+		return idSource.getId();
+	}
+
+	@Benchmark
+	@Threads(32)
+	public long getId_32() {
+		return idSource.getId();
+	}
+
+	@Benchmark
+	@Threads(128)
+	public long getId_128() {
+		return idSource.getId();
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.aegisql.id_builder.benchmarks;
+
+import com.aegisql.id_builder.PacingPolicy;
+import com.aegisql.id_builder.WaitStrategy;
+import com.aegisql.id_builder.impl.AbstractIdGenerator;
+import com.aegisql.id_builder.impl.ConcurrencyMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getId() latency distribution of a saturated generator, per wait strategy and pacing policy.
+ * Look at p0.99 and above: every call beyond the per-millisecond budget waits.
+ * pacing: linear, or burst:N - linear with N milliseconds of headroom.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThrottleLatencyBenchmark {
+
+	@Param({"decimal:10x4x5", "binary:16:4"})
+	public String layout;
+
+	@Param({"spin", "yield", "park", "sleep"})
+	public String waitStrategy;
+
+	@Param({"SYNCHRONIZED", "LOCK_FREE"})
+	public String concurrencyMode;
+
+	@Param({"linear", "burst:100"})
+	public String pacing;
+
+	private AbstractIdGenerator idGenerator;
+
+	@Setup
+	public void setup() {
+		idGenerator = Layouts.idGenerator(layout);
+		idGenerator.setConcurrencyMode(ConcurrencyMode.valueOf(concurrencyMode));
+		idGenerator.setWaitStrategy(switch (waitStrategy) {
+			case "spin" -> WaitStrategy.spin;
+			case "yield" -> WaitStrategy.yield;
+			case "park" -> WaitStrategy.park;
+			case "sleep" -> WaitStrategy.sleep;
+			default -> throw new IllegalArgumentException(waitStrategy);
+		});
+		idGenerator.setPacingPolicy(pacing.equals("linear")
+				? PacingPolicy.linear
+				: PacingPolicy.linearWithBurst(Long.parseLong(pacing.substring("burst:".length()))));
+	}
+
+	@Benchmark
+	@Threads(8)
+	public long getId() {
+		return idGenerator.getId();
+	}
+
+}
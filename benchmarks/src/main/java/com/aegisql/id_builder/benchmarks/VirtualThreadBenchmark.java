@@ -0,0 +1,71 @@
+package com.aegisql.id_builder.benchmarks;
+
+import com.aegisql.id_builder.impl.AbstractIdGenerator;
+import com.aegisql.id_builder.impl.ConcurrencyMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 100k virtual threads hammering one generator; time to complete all of them.
+ * A monitor pins blocked virtual threads to their carriers; compare SYNCHRONIZED with LOCK and LOCK_FREE.
+ * Add -Djdk.tracePinnedThreads=short to the fork to see the pinning.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+	@Param({"100000"})
+	public int threads;
+
+	@Param({"10"})
+	public int idsPerThread;
+
+	@Param({"decimal:10x8", "decimal:10x4x5"})
+	public String layout;
+
+	@Param({"SYNCHRONIZED", "LOCK", "LOCK_FREE"})
+	public String concurrencyMode;
+
+	private AbstractIdGenerator idGenerator;
+
+	@Setup(Level.Iteration)
+	public void setup() {
+		idGenerator = Layouts.idGenerator(layout);
+		idGenerator.setConcurrencyMode(ConcurrencyMode.valueOf(concurrencyMode));
+	}
+
+	@Benchmark
+	public long virtualThreads() {
+		LongAdder sum = new LongAdder();
+		try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < threads; i++) {
+				executorService.execute(() -> {
+					for (int j = 0; j < idsPerThread; j++) {
+						sum.add(idGenerator.getId() & 1);
+					}
+				});
+			}
+		}
+		return sum.sum();
+	}
+
+}
@@ -1,20 +1,34 @@
 package com.aegisql.id_builder;
 
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 // TODO: Auto-generated Javadoc
 
 /**
  * The type Id parts.
+ * The timestamp is in the time unit of the generator that built the ID: seconds or milliseconds.
  */
-public record IdParts(long timestamp, int hostId, long currentId) {
+public record IdParts(long timestamp, int hostId, long currentId, TimeUnit timeUnit) {
+
+	/**
+	 * Instantiates new Id parts with the timestamp in seconds.
+	 *
+	 * @param timestamp the timestamp sec
+	 * @param hostId    the host id
+	 * @param currentId the current id
+	 */
+	public IdParts(long timestamp, int hostId, long currentId) {
+		this(timestamp, hostId, currentId, TimeUnit.SECONDS);
+	}
+
 	/**
 	 * Gets id date time.
 	 *
 	 * @return the id date time
 	 */
 	public Date getIdDateTime() {
-		return new Date(timestamp * 1000);
+		return new Date(timeUnit.toMillis(timestamp));
 	}
 
 	/* (non-Javadoc)
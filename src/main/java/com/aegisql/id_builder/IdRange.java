@@ -0,0 +1,128 @@
+package com.aegisql.id_builder;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The Interface IdRange.
+ * A block of reserved IDs. Once reserved, IDs can be read without further synchronization.
+ */
+public interface IdRange extends Iterable<Long> {
+
+	/**
+	 * Number of IDs in the range.
+	 *
+	 * @return the size
+	 */
+	int size();
+
+	/**
+	 * Gets the id at the given position.
+	 *
+	 * @param index the index
+	 * @return the id
+	 */
+	long get(int index);
+
+	/**
+	 * Copies IDs into the array.
+	 *
+	 * @param dst    the destination array
+	 * @param offset the offset in the destination array
+	 */
+	default void copyTo(long[] dst, int offset) {
+		Objects.checkFromIndexSize(offset, size(), dst.length);
+		for (int i = 0; i < size(); i++) {
+			dst[offset + i] = get(i);
+		}
+	}
+
+	/**
+	 * Materializes IDs into a new array.
+	 *
+	 * @return the long [ ]
+	 */
+	default long[] toArray() {
+		long[] ids = new long[size()];
+		copyTo(ids, 0);
+		return ids;
+	}
+
+	/**
+	 * Iterator over IDs, in reservation order.
+	 *
+	 * @return the primitive iterator
+	 */
+	@Override
+	default PrimitiveIterator.OfLong iterator() {
+		return new PrimitiveIterator.OfLong() {
+			private int pos = 0;
+
+			@Override
+			public long nextLong() {
+				if (pos >= size()) {
+					throw new NoSuchElementException();
+				}
+				return get(pos++);
+			}
+
+			@Override
+			public boolean hasNext() {
+				return pos < size();
+			}
+		};
+	}
+
+	/**
+	 * For each id.
+	 *
+	 * @param action the action
+	 */
+	default void forEachId(LongConsumer action) {
+		for (int i = 0; i < size(); i++) {
+			action.accept(get(i));
+		}
+	}
+
+	/**
+	 * As stream long stream.
+	 *
+	 * @return the long stream
+	 */
+	default LongStream stream() {
+		return StreamSupport.longStream(Spliterators.spliterator(iterator(), size(),
+				Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+	}
+
+	/**
+	 * Range backed by the array of ready IDs.
+	 *
+	 * @param ids the ids
+	 * @return the id range
+	 */
+	static IdRange of(long... ids) {
+		Objects.requireNonNull(ids, "Expected IDs");
+		return new IdRange() {
+			@Override
+			public int size() {
+				return ids.length;
+			}
+
+			@Override
+			public long get(int index) {
+				return ids[index];
+			}
+
+			@Override
+			public void copyTo(long[] dst, int offset) {
+				System.arraycopy(ids, 0, dst, offset, ids.length);
+			}
+		};
+	}
+}
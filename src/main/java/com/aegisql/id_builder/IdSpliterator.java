@@ -0,0 +1,139 @@
+package com.aegisql.id_builder;
+
+import java.util.ArrayDeque;
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * The type Id spliterator.
+ * Ordered, sized spliterator of n IDs. A traversal reserves its IDs in blocks of up to
+ * IdSource.maxBlockSize(), so parallel workers touch the shared IdSource once per block instead of once per ID.
+ * trySplit() reserves the IDs of the prefix before returning it: the prefix gets IDs reserved earlier
+ * than any this spliterator reserves later, so encounter order is the order of IDs.
+ */
+final class IdSpliterator implements Spliterator.OfLong {
+
+	/**
+	 * Splits smaller than this are not divided further.
+	 */
+	static final long MIN_SPLIT = 1024;
+
+	/**
+	 * Reserved IDs range[from, to) not traversed yet.
+	 */
+	private record Block(IdRange range, int from, int to) {
+	}
+
+	private final IdSource idSource;
+	private final int maxBlock;
+	private final ArrayDeque<Block> blocks;
+	private int position;
+	private long reserved;
+	private long unreserved;
+
+	/**
+	 * Instantiates a new Id spliterator.
+	 *
+	 * @param idSource the id source
+	 * @param size     number of IDs
+	 */
+	IdSpliterator(IdSource idSource, long size) {
+		this(idSource, new ArrayDeque<>(), 0, size);
+	}
+
+	private IdSpliterator(IdSource idSource, ArrayDeque<Block> blocks, long reserved, long unreserved) {
+		this.idSource = idSource;
+		this.maxBlock = Math.max(1, idSource.maxBlockSize());
+		this.blocks = blocks;
+		this.reserved = reserved;
+		this.unreserved = unreserved;
+	}
+
+	private Block reserveNext(long limit) {
+		int n = (int) Math.min(limit, maxBlock);
+		unreserved -= n;
+		IdRange range = idSource.reserve(n);
+		return new Block(range, 0, range.size());
+	}
+
+	@Override
+	public boolean tryAdvance(LongConsumer action) {
+		if (reserved == 0) {
+			if (unreserved == 0) {
+				return false;
+			}
+			Block block = reserveNext(unreserved);
+			blocks.addLast(block);
+			reserved = block.to() - block.from();
+			position = block.from();
+		}
+		Block block = blocks.peekFirst();
+		action.accept(block.range().get(position++));
+		reserved--;
+		if (position == block.to()) {
+			blocks.pollFirst();
+			position = blocks.isEmpty() ? 0 : blocks.peekFirst().from();
+		}
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(LongConsumer action) {
+		for (Block block = blocks.pollFirst(); block != null; block = blocks.pollFirst()) {
+			IdRange range = block.range();
+			for (int i = position; i < block.to(); i++) {
+				action.accept(range.get(i));
+			}
+			position = blocks.isEmpty() ? 0 : blocks.peekFirst().from();
+		}
+		reserved = 0;
+		while (unreserved > 0) {
+			reserveNext(unreserved).range().forEachId(action);
+		}
+	}
+
+	@Override
+	public Spliterator.OfLong trySplit() {
+		long size = reserved + unreserved;
+		if (size < 2 * MIN_SPLIT) {
+			return null;
+		}
+		long prefixSize = size >>> 1;
+		long need = prefixSize;
+		ArrayDeque<Block> prefix = new ArrayDeque<>();
+		// reserved IDs come first in encounter order
+		while (need > 0 && !blocks.isEmpty()) {
+			Block block = blocks.peekFirst();
+			int available = block.to() - position;
+			if (available <= need) {
+				prefix.addLast(new Block(block.range(), position, block.to()));
+				blocks.pollFirst();
+				need -= available;
+				position = blocks.isEmpty() ? 0 : blocks.peekFirst().from();
+			} else {
+				int end = position + (int) need;
+				prefix.addLast(new Block(block.range(), position, end));
+				position = end;
+				need = 0;
+			}
+		}
+		reserved -= prefixSize - need;
+		// the rest of the prefix is reserved now, before anything this spliterator reserves later
+		while (need > 0) {
+			Block block = reserveNext(need);
+			prefix.addLast(block);
+			need -= block.to();
+		}
+		return new IdSpliterator(idSource, prefix, prefixSize, 0);
+	}
+
+	@Override
+	public long estimateSize() {
+		return reserved + unreserved;
+	}
+
+	@Override
+	public int characteristics() {
+		return SIZED | SUBSIZED | NONNULL | IMMUTABLE | ORDERED;
+	}
+}
@@ -0,0 +1,44 @@
+package com.aegisql.id_builder;
+
+/**
+ * The Interface PacingPolicy.
+ * Defines how many IDs of the current second a generator may have issued by a given millisecond
+ * of the second. A claim beyond the budget waits for the budget to grow.
+ * Whatever the policy, no more than maxId + 1 IDs are issued per second.
+ * Only generators with time stamps in seconds are paced; finer generators give every tick the whole id range.
+ */
+public interface PacingPolicy {
+
+	/**
+	 * Max current id available at the given millisecond of the second.
+	 *
+	 * @param dt           milliseconds elapsed in the current second, 0..999
+	 * @param maxId        the max id of the layout
+	 * @param maxIdPerMSec the ids per millisecond of the layout
+	 * @return the max current id, capped by maxId
+	 */
+	long maxCurrentId(long dt, long maxId, long maxIdPerMSec);
+
+	/**
+	 * The constant linear. Capacity grows linearly over the second, maxIdPerMSec every millisecond.
+	 * IDs left unused earlier in the second can be spent later, but a burst at the start of a second
+	 * waits a millisecond for every maxIdPerMSec IDs. Default.
+	 */
+	PacingPolicy linear = (dt, maxId, maxIdPerMSec) -> Math.min(maxId, dt * maxIdPerMSec);
+
+	/**
+	 * Linear budget shifted ahead by burstMillis milliseconds of capacity: the headroom is available from the
+	 * start of every second, so a burst of that size is served at once without waiting.
+	 * This is not a token bucket: the headroom does not depend on earlier use, it is not carried over between
+	 * seconds, and IDs left unused earlier in the second add to it. 1000 or more milliseconds disable pacing.
+	 *
+	 * @param burstMillis the headroom in milliseconds of capacity
+	 * @return the pacing policy
+	 */
+	static PacingPolicy linearWithBurst(long burstMillis) {
+		if (burstMillis < 0) {
+			throw new IdSourceException("Burst must be >= 0 ms, got " + burstMillis);
+		}
+		return (dt, maxId, maxIdPerMSec) -> Math.min(maxId, (Math.min(burstMillis, 1000) + dt) * maxIdPerMSec);
+	}
+}
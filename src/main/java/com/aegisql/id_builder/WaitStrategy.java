@@ -0,0 +1,63 @@
+package com.aegisql.id_builder;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The Interface WaitStrategy.
+ * Defines how a thread waits when the generator is throttled: either the budget of the
+ * current millisecond is exhausted, or the generator runs ahead of the clock and must slow down.
+ * Waits never happen while holding the generator's lock.
+ */
+public interface WaitStrategy {
+
+	/**
+	 * Waits for approximately the given time.
+	 *
+	 * @param nanos the time to wait, in nanoseconds
+	 */
+	void await(long nanos);
+
+	/**
+	 * The constant spin. Busy spin with Thread.onSpinWait(); lowest latency, burns a core.
+	 */
+	WaitStrategy spin = nanos -> {
+		long deadline = System.nanoTime() + nanos;
+		while (System.nanoTime() - deadline < 0) {
+			Thread.onSpinWait();
+		}
+	};
+
+	/**
+	 * The constant yield. Gives up the processor until the time is over.
+	 */
+	WaitStrategy yield = nanos -> {
+		long deadline = System.nanoTime() + nanos;
+		while (System.nanoTime() - deadline < 0) {
+			Thread.yield();
+		}
+	};
+
+	/**
+	 * The constant park. LockSupport.parkNanos(); default.
+	 */
+	WaitStrategy park = nanos -> {
+		long deadline = System.nanoTime() + nanos;
+		long remaining = nanos;
+		while (remaining > 0) {
+			LockSupport.parkNanos(remaining);
+			remaining = deadline - System.nanoTime();
+		}
+	};
+
+	/**
+	 * The constant sleep. Thread.sleep(); coarse, subject to OS timer slack.
+	 */
+	WaitStrategy sleep = nanos -> {
+		try {
+			Thread.sleep(Duration.ofNanos(nanos));
+		} catch (InterruptedException e) {
+			throw new IdSourceException("Unexpected Interruption", e);
+		}
+	};
+}
@@ -0,0 +1,219 @@
+package com.aegisql.id_builder.codec;
+
+import com.aegisql.id_builder.IdSourceException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * The Interface IdCodec.
+ * Fixed width text form of an ID. IDs are encoded as unsigned 64-bit numbers, left padded with the zero digit,
+ * so the lexicographic order of encoded IDs equals the numeric order of non-negative IDs.
+ * Encoding and decoding work on caller-supplied arrays and buffers and never allocate.
+ * Decoding is strict: the input must be exactly width() valid digits representing a 64-bit value,
+ * otherwise IdSourceException is thrown.
+ */
+public interface IdCodec {
+
+	/**
+	 * Crockford Base32, 13 characters. Decoding also accepts lower case letters and I, L, O aliases of 1, 1 and 0.
+	 */
+	IdCodec crockfordBase32 = new RadixIdCodec("0123456789ABCDEFGHJKMNPQRSTVWXYZ", 13,
+			"abcdefghjkmnpqrstvwxyziIlLoO", "ABCDEFGHJKMNPQRSTVWXYZ111100");
+
+	/**
+	 * Base62 of digits, upper and lower case letters, 11 characters. Case-sensitive.
+	 */
+	IdCodec base62 = new RadixIdCodec("0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz", 11, "", "");
+
+	/**
+	 * Number of characters of an encoded ID.
+	 *
+	 * @return the width
+	 */
+	int width();
+
+	/**
+	 * Encodes the id into dst starting at offset.
+	 *
+	 * @param id     the id
+	 * @param dst    the destination
+	 * @param offset the offset
+	 * @return offset after the last written byte
+	 */
+	int encode(long id, byte[] dst, int offset);
+
+	/**
+	 * Encodes the id into dst starting at offset.
+	 *
+	 * @param id     the id
+	 * @param dst    the destination
+	 * @param offset the offset
+	 * @return offset after the last written char
+	 */
+	int encode(long id, char[] dst, int offset);
+
+	/**
+	 * Encodes the id at buffer's position and advances the position by width().
+	 *
+	 * @param id  the id
+	 * @param dst the destination
+	 */
+	void encode(long id, ByteBuffer dst);
+
+	/**
+	 * Decodes width() bytes starting at offset.
+	 *
+	 * @param src    the source
+	 * @param offset the offset
+	 * @return the id
+	 */
+	long decode(byte[] src, int offset);
+
+	/**
+	 * Decodes width() chars starting at offset.
+	 *
+	 * @param src    the source
+	 * @param offset the offset
+	 * @return the id
+	 */
+	long decode(char[] src, int offset);
+
+	/**
+	 * Decodes width() bytes at buffer's position and advances the position.
+	 *
+	 * @param src the source
+	 * @return the id
+	 */
+	long decode(ByteBuffer src);
+
+	/**
+	 * Decodes a char sequence of exactly width() chars.
+	 *
+	 * @param src the source
+	 * @return the id
+	 */
+	long decode(CharSequence src);
+
+	/**
+	 * Encodes the id into a new String.
+	 *
+	 * @param id the id
+	 * @return the string
+	 */
+	default String encodeToString(long id) {
+		byte[] bytes = new byte[width()];
+		encode(id, bytes, 0);
+		return new String(bytes, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Encodes ids[offset, offset+length) into consecutive width() sized slots of dst.
+	 *
+	 * @param ids       the ids
+	 * @param offset    the offset of the first id
+	 * @param length    number of ids
+	 * @param dst       the destination
+	 * @param dstOffset the destination offset
+	 * @return offset after the last written byte
+	 */
+	default int encode(long[] ids, int offset, int length, byte[] dst, int dstOffset) {
+		Objects.checkFromIndexSize(offset, length, ids.length);
+		Objects.checkFromIndexSize(dstOffset, Math.multiplyExact(length, width()), dst.length);
+		for (int i = 0; i < length; i++) {
+			dstOffset = encode(ids[offset + i], dst, dstOffset);
+		}
+		return dstOffset;
+	}
+
+	/**
+	 * Encodes ids[offset, offset+length) into consecutive width() sized slots of dst.
+	 *
+	 * @param ids       the ids
+	 * @param offset    the offset of the first id
+	 * @param length    number of ids
+	 * @param dst       the destination
+	 * @param dstOffset the destination offset
+	 * @return offset after the last written char
+	 */
+	default int encode(long[] ids, int offset, int length, char[] dst, int dstOffset) {
+		Objects.checkFromIndexSize(offset, length, ids.length);
+		Objects.checkFromIndexSize(dstOffset, Math.multiplyExact(length, width()), dst.length);
+		for (int i = 0; i < length; i++) {
+			dstOffset = encode(ids[offset + i], dst, dstOffset);
+		}
+		return dstOffset;
+	}
+
+	/**
+	 * Decodes length consecutive width() sized slots of src into ids starting at offset.
+	 *
+	 * @param src       the source
+	 * @param srcOffset the source offset
+	 * @param ids       the ids
+	 * @param offset    the offset of the first id
+	 * @param length    number of ids
+	 * @return offset after the last read byte
+	 */
+	default int decode(byte[] src, int srcOffset, long[] ids, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, ids.length);
+		Objects.checkFromIndexSize(srcOffset, Math.multiplyExact(length, width()), src.length);
+		for (int i = 0; i < length; i++) {
+			ids[offset + i] = decode(src, srcOffset);
+			srcOffset += width();
+		}
+		return srcOffset;
+	}
+
+	/**
+	 * Decodes length consecutive width() sized slots of src into ids starting at offset.
+	 *
+	 * @param src       the source
+	 * @param srcOffset the source offset
+	 * @param ids       the ids
+	 * @param offset    the offset of the first id
+	 * @param length    number of ids
+	 * @return offset after the last read char
+	 */
+	default int decode(char[] src, int srcOffset, long[] ids, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, ids.length);
+		Objects.checkFromIndexSize(srcOffset, Math.multiplyExact(length, width()), src.length);
+		for (int i = 0; i < length; i++) {
+			ids[offset + i] = decode(src, srcOffset);
+			srcOffset += width();
+		}
+		return srcOffset;
+	}
+
+	/**
+	 * Encodes all ids at buffer's position, advancing it.
+	 *
+	 * @param ids the ids
+	 * @param dst the destination
+	 */
+	default void encode(long[] ids, ByteBuffer dst) {
+		if (dst.remaining() / width() < ids.length) {
+			throw new IdSourceException("Buffer has no room for " + ids.length + " IDs");
+		}
+		for (long id : ids) {
+			encode(id, dst);
+		}
+	}
+
+	/**
+	 * Decodes ids.length IDs at buffer's position, advancing it.
+	 *
+	 * @param src the source
+	 * @param ids the ids
+	 */
+	default void decode(ByteBuffer src, long[] ids) {
+		if (src.remaining() / width() < ids.length) {
+			throw new IdSourceException("Buffer has less than " + ids.length + " encoded IDs");
+		}
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = decode(src);
+		}
+	}
+
+}
@@ -0,0 +1,165 @@
+package com.aegisql.id_builder.codec;
+
+import com.aegisql.id_builder.IdSourceException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The type Radix id codec.
+ * Fixed width IdCodec over an alphabet in ascending ASCII order.
+ * Power of two radixes use shifts and masks, other radixes unsigned division.
+ */
+final class RadixIdCodec implements IdCodec {
+
+	private final byte[] digits;
+	private final byte[] values = new byte[128];
+	private final int radix;
+	private final int width;
+	private final int shift;
+	private final long limit;
+
+	/**
+	 * Instantiates a new Radix id codec.
+	 *
+	 * @param alphabet     digits in ascending ASCII order
+	 * @param width        number of digits
+	 * @param aliases      additional accepted characters
+	 * @param aliasDigits  digits the aliases stand for
+	 */
+	RadixIdCodec(String alphabet, int width, String aliases, String aliasDigits) {
+		this.radix = alphabet.length();
+		this.width = width;
+		this.digits = new byte[radix];
+		Arrays.fill(values, (byte) -1);
+		for (int i = 0; i < radix; i++) {
+			char c = alphabet.charAt(i);
+			if (c >= 128 || i > 0 && c <= alphabet.charAt(i - 1)) {
+				throw new IdSourceException("Alphabet must be ascending ASCII: " + alphabet);
+			}
+			digits[i] = (byte) c;
+			values[c] = (byte) i;
+		}
+		for (int i = 0; i < aliases.length(); i++) {
+			values[aliases.charAt(i)] = values[aliasDigits.charAt(i)];
+		}
+		this.shift = Integer.bitCount(radix) == 1 ? Integer.numberOfTrailingZeros(radix) : 0;
+		this.limit = Long.divideUnsigned(-1L, radix);
+		if (Math.pow(radix, width) < 0x1p64) {
+			throw new IdSourceException(width + " digits of radix " + radix + " can not hold 64 bits");
+		}
+	}
+
+	@Override
+	public int width() {
+		return width;
+	}
+
+	private int lowDigit(long v) {
+		return shift > 0 ? (int) (v & (radix - 1)) : (int) Long.remainderUnsigned(v, radix);
+	}
+
+	private long dropDigit(long v) {
+		return shift > 0 ? v >>> shift : Long.divideUnsigned(v, radix);
+	}
+
+	@Override
+	public int encode(long id, byte[] dst, int offset) {
+		Objects.checkFromIndexSize(offset, width, dst.length);
+		for (int i = offset + width - 1; i >= offset; i--) {
+			dst[i] = digits[lowDigit(id)];
+			id = dropDigit(id);
+		}
+		return offset + width;
+	}
+
+	@Override
+	public int encode(long id, char[] dst, int offset) {
+		Objects.checkFromIndexSize(offset, width, dst.length);
+		for (int i = offset + width - 1; i >= offset; i--) {
+			dst[i] = (char) digits[lowDigit(id)];
+			id = dropDigit(id);
+		}
+		return offset + width;
+	}
+
+	@Override
+	public void encode(long id, ByteBuffer dst) {
+		int position = dst.position();
+		Objects.checkFromIndexSize(position, width, dst.limit());
+		for (int i = position + width - 1; i >= position; i--) {
+			dst.put(i, digits[lowDigit(id)]);
+			id = dropDigit(id);
+		}
+		dst.position(position + width);
+	}
+
+	private long accumulate(long v, int c) {
+		int digit = c < 128 ? values[c] : -1;
+		if (digit < 0) {
+			throw new IdSourceException("Invalid character '" + (char) c + "' in encoded ID");
+		}
+		if (Long.compareUnsigned(v, limit) > 0) {
+			throw new IdSourceException("Encoded ID exceeds 64 bits");
+		}
+		long shifted = v * radix;
+		long next = shifted + digit;
+		if (Long.compareUnsigned(next, shifted) < 0) {
+			throw new IdSourceException("Encoded ID exceeds 64 bits");
+		}
+		return next;
+	}
+
+	@Override
+	public long decode(byte[] src, int offset) {
+		Objects.checkFromIndexSize(offset, width, src.length);
+		long v = 0;
+		for (int i = offset; i < offset + width; i++) {
+			v = accumulate(v, src[i] & 0xFF);
+		}
+		return v;
+	}
+
+	@Override
+	public long decode(char[] src, int offset) {
+		Objects.checkFromIndexSize(offset, width, src.length);
+		long v = 0;
+		for (int i = offset; i < offset + width; i++) {
+			v = accumulate(v, src[i]);
+		}
+		return v;
+	}
+
+	@Override
+	public long decode(ByteBuffer src) {
+		int position = src.position();
+		Objects.checkFromIndexSize(position, width, src.limit());
+		long v = 0;
+		for (int i = position; i < position + width; i++) {
+			v = accumulate(v, src.get(i) & 0xFF);
+		}
+		src.position(position + width);
+		return v;
+	}
+
+	@Override
+	public long decode(CharSequence src) {
+		if (src.length() != width) {
+			throw new IdSourceException("Encoded ID must have " + width + " characters, got " + src.length());
+		}
+		long v = 0;
+		for (int i = 0; i < width; i++) {
+			v = accumulate(v, src.charAt(i));
+		}
+		return v;
+	}
+
+	@Override
+	public String toString() {
+		return "RadixIdCodec{" +
+				"radix=" + radix +
+				", width=" + width +
+				'}';
+	}
+}
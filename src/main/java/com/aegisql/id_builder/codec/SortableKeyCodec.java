@@ -0,0 +1,184 @@
+package com.aegisql.id_builder.codec;
+
+import com.aegisql.id_builder.IdSourceException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The type Sortable key codec.
+ * Binary key of an ID: an optional constant prefix followed by 8 big-endian bytes of the ID with its sign bit flipped,
+ * so unsigned byte-wise (memcmp) order of keys equals signed numeric order of IDs.
+ * Both decimal and binary generators issue IDs in ascending numeric order, so keys sort in generation order.
+ * Keys are written straight into the destination regardless of its byte order.
+ * A MemorySegment region can be written through segment.asByteBuffer().
+ */
+public final class SortableKeyCodec {
+
+	private final byte[] prefix;
+
+	/**
+	 * Instantiates a new Sortable key codec without prefix.
+	 */
+	public SortableKeyCodec() {
+		this(new byte[0]);
+	}
+
+	/**
+	 * Instantiates a new Sortable key codec.
+	 *
+	 * @param prefix the key prefix
+	 */
+	public SortableKeyCodec(byte[] prefix) {
+		this.prefix = Objects.requireNonNull(prefix, "Expected prefix").clone();
+	}
+
+	/**
+	 * Key size in bytes.
+	 *
+	 * @return the int
+	 */
+	public int keySize() {
+		return prefix.length + Long.BYTES;
+	}
+
+	/**
+	 * Gets prefix.
+	 *
+	 * @return the prefix copy
+	 */
+	public byte[] getPrefix() {
+		return prefix.clone();
+	}
+
+	private static long bigEndian(long sortable, ByteOrder order) {
+		return order == ByteOrder.BIG_ENDIAN ? sortable : Long.reverseBytes(sortable);
+	}
+
+	/**
+	 * Writes the key of the id at buffer's position and advances the position by keySize().
+	 *
+	 * @param id  the id
+	 * @param dst the destination
+	 */
+	public void write(long id, ByteBuffer dst) {
+		if (dst.remaining() < keySize()) {
+			throw new IdSourceException("Buffer has no room for a key of " + keySize() + " bytes");
+		}
+		if (prefix.length > 0) {
+			dst.put(prefix);
+		}
+		dst.putLong(bigEndian(id ^ Long.MIN_VALUE, dst.order()));
+	}
+
+	/**
+	 * Writes the key of the id into dst starting at offset.
+	 *
+	 * @param id     the id
+	 * @param dst    the destination
+	 * @param offset the offset
+	 * @return offset after the last written byte
+	 */
+	public int write(long id, byte[] dst, int offset) {
+		Objects.checkFromIndexSize(offset, keySize(), dst.length);
+		System.arraycopy(prefix, 0, dst, offset, prefix.length);
+		long sortable = id ^ Long.MIN_VALUE;
+		int end = offset + keySize();
+		for (int i = end - 1; i >= end - Long.BYTES; i--) {
+			dst[i] = (byte) sortable;
+			sortable >>>= 8;
+		}
+		return end;
+	}
+
+	/**
+	 * Writes keys of ids[offset, offset+length) at buffer's position, advancing it.
+	 *
+	 * @param ids    the ids
+	 * @param offset the offset of the first id
+	 * @param length number of ids
+	 * @param dst    the destination
+	 */
+	public void write(long[] ids, int offset, int length, ByteBuffer dst) {
+		Objects.checkFromIndexSize(offset, length, ids.length);
+		if (dst.remaining() / keySize() < length) {
+			throw new IdSourceException("Buffer has no room for " + length + " keys");
+		}
+		ByteOrder order = dst.order();
+		if (prefix.length == 0) {
+			for (int i = offset; i < offset + length; i++) {
+				dst.putLong(bigEndian(ids[i] ^ Long.MIN_VALUE, order));
+			}
+		} else {
+			for (int i = offset; i < offset + length; i++) {
+				dst.put(prefix);
+				dst.putLong(bigEndian(ids[i] ^ Long.MIN_VALUE, order));
+			}
+		}
+	}
+
+	/**
+	 * Reads the id of a key at buffer's position and advances the position by keySize().
+	 *
+	 * @param src the source
+	 * @return the id
+	 */
+	public long read(ByteBuffer src) {
+		if (src.remaining() < keySize()) {
+			throw new IdSourceException("Buffer has less than " + keySize() + " bytes of a key");
+		}
+		int position = src.position();
+		if (prefix.length > 0 && src.slice(position, prefix.length).mismatch(ByteBuffer.wrap(prefix)) >= 0) {
+			throw new IdSourceException("Key prefix mismatch");
+		}
+		long sortable = bigEndian(src.getLong(position + prefix.length), src.order());
+		src.position(position + keySize());
+		return sortable ^ Long.MIN_VALUE;
+	}
+
+	/**
+	 * Reads the id of a key in src starting at offset.
+	 *
+	 * @param src    the source
+	 * @param offset the offset
+	 * @return the id
+	 */
+	public long read(byte[] src, int offset) {
+		Objects.checkFromIndexSize(offset, keySize(), src.length);
+		if (Arrays.mismatch(prefix, 0, prefix.length, src, offset, offset + prefix.length) >= 0) {
+			throw new IdSourceException("Key prefix mismatch");
+		}
+		long sortable = 0;
+		for (int i = offset + prefix.length; i < offset + keySize(); i++) {
+			sortable = sortable << 8 | (src[i] & 0xFF);
+		}
+		return sortable ^ Long.MIN_VALUE;
+	}
+
+	/**
+	 * Reads length keys at buffer's position into ids starting at offset, advancing the position.
+	 *
+	 * @param src    the source
+	 * @param ids    the ids
+	 * @param offset the offset of the first id
+	 * @param length number of ids
+	 */
+	public void read(ByteBuffer src, long[] ids, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, ids.length);
+		if (src.remaining() / keySize() < length) {
+			throw new IdSourceException("Buffer has less than " + length + " keys");
+		}
+		for (int i = offset; i < offset + length; i++) {
+			ids[i] = read(src);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SortableKeyCodec{" +
+				"prefix=" + Arrays.toString(prefix) +
+				'}';
+	}
+}
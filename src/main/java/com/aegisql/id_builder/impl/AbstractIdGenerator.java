@@ -2,10 +2,22 @@ package com.aegisql.id_builder.impl;
 
 import com.aegisql.id_builder.IdParts;
 import com.aegisql.id_builder.IdSource;
+import com.aegisql.id_builder.IdSourceException;
 import com.aegisql.id_builder.TimeTransformer;
+import com.aegisql.id_builder.PacingPolicy;
+import com.aegisql.id_builder.WaitStrategy;
+import com.aegisql.id_builder.utils.PaddedAtomicLong;
 import com.aegisql.id_builder.utils.Utils;
 
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.IntUnaryOperator;
 import java.util.function.LongSupplier;
 
@@ -36,16 +48,58 @@ public abstract class AbstractIdGenerator implements IdSource {
 	 * The Max id per m sec.
 	 */
 	protected final long maxIdPerMSec;
+	/**
+	 * Unit of the time stamps returned by parse(): SECONDS, MILLISECONDS or MICROSECONDS.
+	 * Second generators pace current id within the second; finer generators give every tick the whole id range.
+	 */
+	protected final TimeUnit timeUnit;
+	/**
+	 * Length of one time stamp step of the state and IDs, in nanoseconds.
+	 * Same as the time unit, except for sub-millisecond generators counting ticks of several microseconds.
+	 */
+	protected final long tickNanos;
+
+	private final LongAdder globalCounter = new LongAdder();
+
+	@SuppressWarnings("this-escape") // metrics only keep the reference
+	private final IdGeneratorMetrics metrics = new IdGeneratorMetrics(this);
+	private final AtomicBoolean runningAhead = new AtomicBoolean();
+	private final AtomicReference<ClockRecoveryEvent> clockRecoveryEvent = new AtomicReference<>();
+	private final String layout;
+
+	/**
+	 * Current time stamp sec and current id packed in one word.
+	 * Timestamp, relative to the stateBase, is kept in the upper bits, current id in the lower idBits.
+	 */
+	private final PaddedAtomicLong state;
+	private final int idBits;
+	private final long idMask;
+	private final long stateBase;
+
+	/**
+	 * Returned by nextState when the current millisecond budget is exhausted.
+	 */
+	private static final long WAIT = -1L;
+	/**
+	 * Flag set by nextState on states claimed while the generator runs ahead of the clock.
+	 */
+	private static final long AHEAD = Long.MIN_VALUE;
+
+	private static final long THROTTLE_WAIT_NANOS = 50_000;
+	private static final long PAST_SHIFT_PAUSE_NANOS = 1_000_000;
+	private static final long MAX_THROTTLE_NANOS = 10_000_000_000L;
 
-	private long globalCounter;
 	/**
-	 * The Current id.
+	 * Years the timestamp field of a binary layout must still hold at construction.
 	 */
-	protected long currentId;
+	static final long MIN_LIFETIME_YEARS = 10;
+
+	private final PaddedAtomicLong pauseUntil = new PaddedAtomicLong(0);
 	/**
-	 * The Current time stamp sec.
+	 * Highest clock reading seen, in ticks. A reading below it means the clock moved back.
 	 */
-	protected long currentTimeStampSec;
+	private final PaddedAtomicLong highestClock = new PaddedAtomicLong(Long.MIN_VALUE);
+	private final ReentrantLock lock = new ReentrantLock();
 
 	/**
 	 * The Sleep after.
@@ -60,6 +114,26 @@ public abstract class AbstractIdGenerator implements IdSource {
 	 */
 	protected LongSupplier timestamp = System::currentTimeMillis;
 
+	private CachedClock cachedClock;
+
+	private NanoClock nanoClock;
+
+	private ConcurrencyMode concurrencyMode = ConcurrencyMode.SYNCHRONIZED;
+
+	private WaitStrategy waitStrategy = WaitStrategy.park;
+
+	private PacingPolicy pacingPolicy = PacingPolicy.linear;
+
+	private long maxLookaheadSec = 0;
+
+	private long maxLookahead = 0;
+
+	private IdCheckpoint checkpoint;
+	/**
+	 * Packed state persisted by the checkpoint; no ID above it is returned.
+	 */
+	private volatile long checkpointState = Long.MAX_VALUE;
+
 	/**
 	 * Instantiates a new Time host id generator.
 	 *
@@ -69,72 +143,715 @@ public abstract class AbstractIdGenerator implements IdSource {
 	 * @param startTimeStampSec the start time stamp sec
 	 */
 	protected AbstractIdGenerator(IntUnaryOperator idCeilFunction, int hostPositions, int idPositions, long startTimeStampSec) {
+		this(idCeilFunction, hostPositions, idPositions, startTimeStampSec, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Instantiates a new Time host id generator.
+	 *
+	 * @param idCeilFunction the id ceil function
+	 * @param hostPositions  the host positions
+	 * @param idPositions    the id positions
+	 * @param startTimeStamp the start time stamp, in the time unit
+	 * @param timeUnit       the time unit, SECONDS or MILLISECONDS
+	 */
+	protected AbstractIdGenerator(IntUnaryOperator idCeilFunction, int hostPositions, int idPositions, long startTimeStamp, TimeUnit timeUnit) {
+		this(idCeilFunction, hostPositions, idPositions, startTimeStamp, checkTimeUnit(timeUnit), timeUnit.toNanos(1));
+	}
+
+	/**
+	 * Instantiates a new Time host id generator counting time in ticks of tickNanos.
+	 *
+	 * @param idCeilFunction the id ceil function
+	 * @param hostPositions  the host positions
+	 * @param idPositions    the id positions
+	 * @param startTimeStamp the start time stamp, in ticks
+	 * @param timeUnit       the time unit of parsed time stamps
+	 * @param tickNanos      the tick length: one second, or a whole number of microseconds dividing one millisecond
+	 */
+	protected AbstractIdGenerator(IntUnaryOperator idCeilFunction, int hostPositions, int idPositions, long startTimeStamp, TimeUnit timeUnit, long tickNanos) {
 		Objects.requireNonNull(idCeilFunction,"Expected ID Ceil function");
+		Objects.requireNonNull(timeUnit,"Expected time unit");
+		if(tickNanos != 1_000_000_000L && (tickNanos < 1000 || 1_000_000 % tickNanos != 0 || tickNanos % timeUnit.toNanos(1) != 0)) {
+			throw new IdSourceException("Tick must be one second or a divisor of one millisecond in whole microseconds, got " + tickNanos + " ns");
+		}
+		this.timeUnit = timeUnit;
+		this.tickNanos = tickNanos;
 		assertNotNegative(hostPositions,"Number of host ID positions must be >= 0");
 		assertPositive(idPositions,"Number of ID positions must be >= 1");
 		this.idCeil = idCeilFunction.applyAsInt(idPositions);
 		this.hostIdCeil = idCeilFunction.applyAsInt(hostPositions);
 		this.maxId = this.idCeil - 1;
 		this.maxHostId = this.hostIdCeil - 1;
-		this.maxIdPerMSec = this.idCeil / 1000;
-		this.globalCounter = 0;
-		this.currentId = 0;
-		this.currentTimeStampSec = startTimeStampSec;
+		this.maxIdPerMSec = timeUnit == TimeUnit.SECONDS ? this.idCeil / 1000 : this.idCeil * (1_000_000 / tickNanos);
+		this.idBits = 64 - Long.numberOfLeadingZeros(maxId);
+		this.idMask = Utils.setLowerBits(idBits);
+		this.stateBase = startTimeStamp;
+		this.state = new PaddedAtomicLong(0);
+		this.layout = getClass().getSimpleName() + "{maxHostId=" + maxHostId + ", maxId=" + maxId + "}";
 		setPastShiftSlowDown(1.2);
 	}
 
+	private static TimeUnit checkTimeUnit(TimeUnit timeUnit) {
+		if(timeUnit != TimeUnit.SECONDS && timeUnit != TimeUnit.MILLISECONDS) {
+			throw new IdSourceException("Time unit must be SECONDS or MILLISECONDS");
+		}
+		return timeUnit;
+	}
+
 	/**
 	 * Sets past shift slow down.
 	 *
 	 * @param x the x
 	 */
 	public void setPastShiftSlowDown(double x) {
-		this.sleepAfter = Math.round((double) idCeil / 1000 / x);
+		double idsPerMSec = (double) idCeil * 1_000_000 / tickNanos;
+		this.sleepAfter = Math.max(1, Math.round(idsPerMSec / x));
+	}
+
+	/**
+	 * Sets max lookahead. With lookahead a generator that used up the paced budget of the current
+	 * millisecond does not wait: it hands out the rest of the current second and, when the second is
+	 * used up, borrows IDs from the following seconds, up to maxLookaheadSec ahead of the clock.
+	 * A new second starts paced again. At the max lead the generator waits for the clock.
+	 * A clock that shifts back by less than the lookahead is absorbed the same way.
+	 * 0, the default, disables borrowing.
+	 *
+	 * @param maxLookaheadSec the max lookahead in seconds
+	 */
+	public void setMaxLookaheadSec(long maxLookaheadSec) {
+		if(maxLookaheadSec < 0) {
+			throw new IdSourceException("Max lookahead must be >= 0");
+		}
+		this.maxLookaheadSec = maxLookaheadSec;
+		this.maxLookahead = maxLookaheadSec * (1_000_000_000L / tickNanos);
+	}
+
+	/**
+	 * Gets max lookahead sec.
+	 *
+	 * @return the max lookahead sec
+	 */
+	public long getMaxLookaheadSec() {
+		return maxLookaheadSec;
+	}
+
+	/**
+	 * How far, in seconds, the generator currently runs ahead of the clock.
+	 *
+	 * @return the lead in seconds, 0 if the generator is not ahead
+	 */
+	public long getLeadSec() {
+		return Math.max(0, getCurrentTimeStampSec() - clockTimeStamp(readClock())) * tickNanos / 1_000_000_000L;
+	}
+
+	/**
+	 * How far, in milliseconds, the wall clock is ahead of the clock of the generator, negative if it is behind.
+	 * Non zero only for a {@link NanoClock} in the middle of slewing, or holding after the wall clock shifted back.
+	 *
+	 * @return the clock drift in milliseconds, 0 if the generator does not use a NanoClock
+	 */
+	public long getClockDriftMillis() {
+		NanoClock clock = nanoClock();
+		return clock == null ? 0 : clock.getDriftNanos() / 1_000_000;
+	}
+
+	/**
+	 * Nano clock of the generator, if any.
+	 *
+	 * @return the nano clock or null
+	 */
+	NanoClock nanoClock() {
+		return nanoClock;
+	}
+
+	/**
+	 * Sets concurrency mode. Must be set before the generator is shared between threads.
+	 *
+	 * @param concurrencyMode the concurrency mode
+	 */
+	public void setConcurrencyMode(ConcurrencyMode concurrencyMode) {
+		this.concurrencyMode = Objects.requireNonNull(concurrencyMode,"Expected concurrency mode");
+	}
+
+	/**
+	 * Sets wait strategy used when the generator is throttled.
+	 *
+	 * @param waitStrategy the wait strategy
+	 */
+	public void setWaitStrategy(WaitStrategy waitStrategy) {
+		this.waitStrategy = Objects.requireNonNull(waitStrategy,"Expected wait strategy");
+	}
+
+	/**
+	 * Gets wait strategy.
+	 *
+	 * @return the wait strategy
+	 */
+	public WaitStrategy getWaitStrategy() {
+		return waitStrategy;
+	}
+
+	/**
+	 * Sets pacing policy: how the budget of IDs grows over the second.
+	 * Ignored by generators with time stamps finer than a second.
+	 *
+	 * @param pacingPolicy the pacing policy
+	 */
+	public void setPacingPolicy(PacingPolicy pacingPolicy) {
+		this.pacingPolicy = Objects.requireNonNull(pacingPolicy,"Expected pacing policy");
+	}
+
+	/**
+	 * Gets pacing policy.
+	 *
+	 * @return the pacing policy
+	 */
+	public PacingPolicy getPacingPolicy() {
+		return pacingPolicy;
+	}
+
+	/**
+	 * Sets checkpoint. If the checkpoint holds a mark of this layout above the current state,
+	 * the generator continues from the mark; then the current state is persisted
+	 * and from now on no ID is returned before the checkpoint covers it.
+	 * Must be set right after construction, before the generator is shared between threads.
+	 *
+	 * @param checkpoint the checkpoint, or null to stop checkpointing
+	 */
+	public void setCheckpoint(IdCheckpoint checkpoint) {
+		if(checkpoint == null) {
+			this.checkpoint = null;
+			this.checkpointState = Long.MAX_VALUE;
+			return;
+		}
+		long layout = layoutFingerprint();
+		checkpoint.lock.lock();
+		try {
+			if(! checkpoint.isInitialized()) {
+				checkpoint.initialize(layout);
+			} else if(checkpoint.getLayout() != layout) {
+				throw new IdSourceException("Checkpoint " + checkpoint.getPath() + " was written by a generator of a different layout");
+			} else {
+				long timeStampSec = checkpoint.getTimeStampSec();
+				long currentId = checkpoint.getCurrentId();
+				long current = state.get();
+				if(timeStampSec > timeStampOf(current) || timeStampSec == timeStampOf(current) && currentId > idOf(current)) {
+					resetState(timeStampSec, Math.min(currentId, maxId));
+				}
+			}
+			long current = state.get();
+			checkpoint.write(timeStampOf(current), idOf(current));
+			this.checkpoint = checkpoint;
+			this.checkpointState = current;
+		} finally {
+			checkpoint.lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets checkpoint.
+	 *
+	 * @return the checkpoint, or null
+	 */
+	public IdCheckpoint getCheckpoint() {
+		return checkpoint;
+	}
+
+	/**
+	 * Identifies the ID layout: generator type, id and host id ceilings, tick length and epoch.
+	 * The epoch of the time transformer is identified by the value it gives to time stamp 0,
+	 * so the transformer must be set before the checkpoint.
+	 *
+	 * @return the long
+	 */
+	long layoutFingerprint() {
+		long h = getClass().getName().hashCode();
+		h = h * 31 + idCeil;
+		h = h * 31 + hostIdCeil;
+		h = h * 31 + tickNanos;
+		h = h * 31 + (tf == null ? 0 : tf.transformTimestamp(0));
+		return h;
+	}
+
+	/**
+	 * Gets layout: generator type, max host id and max id. Reported by JFR events.
+	 *
+	 * @return the layout
+	 */
+	public String getLayout() {
+		return layout;
+	}
+
+	/**
+	 * Gets host id.
+	 *
+	 * @return the host id
+	 */
+	public abstract long getHostId();
+
+	/**
+	 * Gets metrics.
+	 *
+	 * @return the metrics
+	 */
+	public IdGeneratorMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Gets concurrency mode.
+	 *
+	 * @return the concurrency mode
+	 */
+	public ConcurrencyMode getConcurrencyMode() {
+		return concurrencyMode;
 	}
 
 	/* (non-Javadoc)
 	 * @see com.aegisql.id_builder.IdSource#getId()
 	 */
 	@Override
-	public synchronized long getId() {
+	public long getId() {
+		long next = claim(1, null);
+		return buildId(timeStampOf(next), idOf(next));
+	}
+
+	/**
+	 * Reserves n IDs. Each second of the reservation is claimed atomically as a contiguous run of
+	 * current id values. A run may be shorter than requested if the per-millisecond budget or
+	 * the second's counter space is exhausted; the rest of the IDs is claimed in the next run.
+	 *
+	 * @param n number of IDs to reserve
+	 * @return the segmented id range
+	 */
+	@Override
+	public SegmentedIdRange reserve(int n) {
+		return reserve(n, false);
+	}
+
+	/**
+	 * Capacity of one second, capped at Integer.MAX_VALUE.
+	 *
+	 * @return the max block size
+	 */
+	@Override
+	public int maxBlockSize() {
+		return (int) Math.min(Integer.MAX_VALUE, (maxId + 1) * (1_000_000_000L / tickNanos));
+	}
+
+	/**
+	 * Reserves up to n IDs in a single claim. Waits only while not a single ID is available,
+	 * so at least one ID is always reserved.
+	 *
+	 * @param n max number of IDs to reserve
+	 * @return the segmented id range
+	 */
+	SegmentedIdRange reserveAvailable(int n) {
+		return reserve(n, true);
+	}
+
+	private SegmentedIdRange reserve(int n, boolean singleClaim) {
+		assertPositive(n, "Number of reserved IDs must be >= 1");
+		List<SegmentedIdRange.Segment> segments = new ArrayList<>(1);
+		long[] previous = new long[1];
+		int remaining = n;
+		while (remaining > 0) {
+			long next = claim(remaining, previous);
+			long timeStampSec = timeStampOf(next);
+			long firstId = firstIdOf(previous[0], next);
+			int count = (int) (idOf(next) - firstId + 1);
+			long first = buildId(timeStampSec, firstId);
+			long step = buildId(timeStampSec, 1) - buildId(timeStampSec, 0);
+			int last = segments.size() - 1;
+			if (last >= 0 && segments.get(last).timeStampSec() == timeStampSec && segments.get(last).lastId() + step == first) {
+				var prev = segments.get(last);
+				segments.set(last, new SegmentedIdRange.Segment(timeStampSec, prev.firstId(), step, prev.count() + count));
+			} else {
+				segments.add(new SegmentedIdRange.Segment(timeStampSec, first, step, count));
+			}
+			remaining -= count;
+			if (singleClaim) {
+				break;
+			}
+		}
+		return new SegmentedIdRange(segments);
+	}
+
+	/**
+	 * Claims up to n consecutive current id values.
+	 * All waits happen here, outside the critical section of any concurrency mode.
+	 *
+	 * @param n        max number of IDs to claim
+	 * @param previous if not null, receives the state preceding the claim
+	 * @return the packed state holding the last claimed id
+	 */
+	private long claim(int n, long[] previous) {
+		long throttledSince = 0;
+		ThrottleWaitEvent throttleEvent = null;
+		while(true) {
+			awaitPastShiftPause();
+			long next = switch (concurrencyMode) {
+				case SYNCHRONIZED -> advanceSynchronized(n, previous);
+				case LOCK -> advanceLocked(n, previous);
+				case LOCK_FREE -> advanceLockFree(n, previous);
+			};
+			if(next == WAIT) {
+				if(throttledSince == 0) {
+					metrics.saturations.increment();
+					saturated();
+					throttleEvent = new ThrottleWaitEvent();
+					throttleEvent.begin();
+				}
+				throttledSince = throttle(throttledSince);
+				continue;
+			}
+			boolean ahead = (next & AHEAD) != 0;
+			next &= ~AHEAD;
+			if(next > checkpointState) {
+				moveCheckpoint(next);
+			}
+			long lastId = idOf(next);
+			long firstId = previous == null ? lastId : firstIdOf(previous[0], next);
+			if(ahead) {
+				// ahead of the clock beyond the lookahead is an episode only if the clock really moved back,
+				// not when a stale reading raced with a newer one or the state was restored ahead of the clock
+				// one thread starts the episode, however many claim ahead at once
+				if(! runningAhead.get() && clockTimeStamp(readClock()) < highestClock.get() && runningAhead.compareAndSet(false, true)) {
+					metrics.pastShiftEpisodes.increment();
+					clockSteppedBack(next);
+				}
+				pastShiftPause(firstId, lastId);
+			} else if(runningAhead.get() && clockTimeStamp(readClock()) >= highestClock.get() && runningAhead.compareAndSet(true, false)) {
+				// a claim made with a reading taken before the step back is not ahead either; the episode
+				// ends only when a fresh reading is back at the highest one seen
+				clockRecovered();
+			}
+			if(throttleEvent != null) {
+				throttleEvent.end();
+				if(throttleEvent.shouldCommit()) {
+					throttleEvent.layout = layout;
+					throttleEvent.hostId = getHostId();
+					throttleEvent.claimedIds = lastId - firstId + 1;
+					throttleEvent.commit();
+				}
+			}
+			globalCounter.add(lastId - firstId + 1);
+			return next;
+		}
+	}
+
+	private void saturated() {
+		var event = new SaturationEvent();
+		if(event.shouldCommit()) {
+			long current = state.get();
+			event.layout = layout;
+			event.hostId = getHostId();
+			event.timeStamp = timeStampOf(current) * tickNanos / 1_000_000;
+			event.currentId = idOf(current);
+			event.commit();
+		}
+	}
+
+	private void clockSteppedBack(long next) {
+		var event = new ClockStepBackEvent();
+		if(event.shouldCommit()) {
+			event.layout = layout;
+			event.hostId = getHostId();
+			long clockTimeStamp = clockTimeStamp(readClock());
+			event.generatorTimeStampSec = timeStampOf(next) * tickNanos / 1_000_000_000L;
+			event.clockTimeStampSec = clockTimeStamp * tickNanos / 1_000_000_000L;
+			event.lead = (timeStampOf(next) - clockTimeStamp) * tickNanos / 1_000_000;
+			event.commit();
+		}
+		var recovery = new ClockRecoveryEvent();
+		if(recovery.isEnabled()) {
+			recovery.begin();
+			clockRecoveryEvent.set(recovery);
+		}
+	}
+
+	private void clockRecovered() {
+		var recovery = clockRecoveryEvent.getAndSet(null);
+		if(recovery != null) {
+			recovery.end();
+			if(recovery.shouldCommit()) {
+				recovery.layout = layout;
+				recovery.hostId = getHostId();
+				recovery.commit();
+			}
+		}
+	}
+
+	/**
+	 * Moves the checkpoint a chunk ahead of the claimed state, before any ID of the claim is returned.
+	 */
+	private void moveCheckpoint(long next) {
+		IdCheckpoint cp = checkpoint;
+		if(cp == null) {
+			return;
+		}
+		cp.lock.lock();
+		try {
+			if(next > checkpointState) {
+				long timeStampSec = timeStampOf(next);
+				long currentId = Math.min(maxId, idOf(next) + cp.getChunk());
+				cp.write(timeStampSec, currentId);
+				checkpointState = pack(timeStampSec, currentId);
+			}
+		} finally {
+			cp.lock.unlock();
+		}
+	}
+
+	private synchronized long advanceSynchronized(int n, long[] previous) {
+		return advance(n, previous);
+	}
+
+	private long advanceLocked(int n, long[] previous) {
+		if(! lock.tryLock()) {
+			metrics.contentions.increment();
+			lock.lock();
+		}
+		try {
+			return advance(n, previous);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Advances the state. Caller must hold the monitor or the lock.
+	 */
+	private long advance(int n, long[] previous) {
+		long clock = readClock();
+		long now   = clockTimeStamp(clock);
+		long dt    = clock & CachedClock.MILLIS_MASK;
+		observeClock(now);
+		long current = state.get();
+		long next = nextState(current, now, dt, n);
+		if(next != WAIT) {
+			state.setRelease(next & ~AHEAD);
+			if(previous != null) {
+				previous[0] = current;
+			}
+		}
+		return next;
+	}
+
+	private long advanceLockFree(int n, long[] previous) {
+		long current;
+		long next;
+		int attempts = 0;
+		do {
+			attempts++;
+			long clock = readClock();
+			long now   = clockTimeStamp(clock);
+			long dt    = clock & CachedClock.MILLIS_MASK;
+			observeClock(now);
+			current = state.get();
+			next = nextState(current, now, dt, n);
+		} while (next != WAIT && ! state.compareAndSet(current, next & ~AHEAD));
+		if(attempts > 1) {
+			metrics.contentions.add(attempts - 1);
+		}
+		if(next != WAIT && previous != null) {
+			previous[0] = current;
+		}
+		return next;
+	}
+
+	private void observeClock(long now) {
+		long seen = highestClock.get();
+		while(now > seen && ! highestClock.compareAndSet(seen, now)) {
+			seen = highestClock.get();
+		}
+	}
+
+	/**
+	 * Reads the clock.
+	 *
+	 * @return seconds and milliseconds of the second, packed the same way as CachedClock does
+	 */
+	long readClock() {
+		if(cachedClock != null) {
+			return cachedClock.secondsAndMillis();
+		}
 		long nowMs = timestamp.getAsLong();
 		long now   = nowMs / 1000;
-		long dt    = nowMs - (now * 1000);
-		long nextCounter = globalCounter+1;
+		return now << CachedClock.MILLIS_BITS | (nowMs - now * 1000);
+	}
+
+	/**
+	 * Converts a clock reading to the ticks of the generator.
+	 *
+	 * @param clock seconds and milliseconds packed by readClock()
+	 * @return the time stamp in ticks
+	 */
+	long clockTimeStamp(long clock) {
+		long seconds = clock >>> CachedClock.MILLIS_BITS;
+		return timeUnit == TimeUnit.SECONDS ? seconds : seconds * 1000 + (clock & CachedClock.MILLIS_MASK);
+	}
+
+	/**
+	 * Max current id available at the given millisecond of the current time stamp.
+	 * Second generators grow the budget over the second as the pacing policy says, finer generators have it all at once.
+	 */
+	private long maxPredictedId(long dt) {
+		return timeUnit == TimeUnit.SECONDS ? Math.min(maxId, pacingPolicy.maxCurrentId(dt, maxId, maxIdPerMSec)) : maxId;
+	}
+
+	/**
+	 * Waits for the budget of the current millisecond to grow.
+	 *
+	 * @param throttledSince nano time of the first wait, or 0
+	 * @return nano time of the first wait
+	 */
+	private long throttle(long throttledSince) {
+		long now = System.nanoTime();
+		if(throttledSince == 0) {
+			throttledSince = now;
+		} else if(now - throttledSince > MAX_THROTTLE_NANOS) {
+			throw new IdSourceException("ID generator is throttled for more than " + MAX_THROTTLE_NANOS / 1000000 + " ms. Is the clock running?");
+		}
+		waitStrategy.await(THROTTLE_WAIT_NANOS);
+		metrics.recordWait(System.nanoTime() - now);
+		return throttledSince;
+	}
+
+	/**
+	 * Slows the generator down while it runs ahead of the clock:
+	 * one millisecond pause for every sleepAfter IDs.
+	 * The pause is observed by all threads, but nobody holds the lock while waiting.
+	 */
+	private void pastShiftPause(long firstId, long lastId) {
+		if (Math.floorDiv(lastId, sleepAfter) != Math.floorDiv(firstId - 1, sleepAfter)) {
+			long start = System.nanoTime();
+			pauseUntil.set(start + PAST_SHIFT_PAUSE_NANOS);
+			waitStrategy.await(PAST_SHIFT_PAUSE_NANOS);
+			metrics.recordWait(System.nanoTime() - start);
+		}
+	}
+
+	private void awaitPastShiftPause() {
+		long until = pauseUntil.get();
+		if(until != 0) {
+			long start = System.nanoTime();
+			long remaining = until - start;
+			if(remaining > 0) {
+				waitStrategy.await(remaining);
+				metrics.recordWait(System.nanoTime() - start);
+			} else {
+				pauseUntil.compareAndSet(until, 0);
+			}
+		}
+	}
+
+	/**
+	 * Computes the state following the current one. Shared by all concurrency modes,
+	 * so uniqueness and ordering rules are the same for all of them.
+	 *
+	 * @param current the current packed state
+	 * @param now     the current time in ticks
+	 * @param dt      milliseconds elapsed in the current second
+	 * @param n       max number of IDs to claim
+	 * @return the next packed state, flagged AHEAD if the generator runs ahead of the clock,
+	 * or WAIT if the budget for this millisecond is exhausted
+	 */
+	private long nextState(long current, long now, long dt, int n) {
+		long currentTimeStampSec = timeStampOf(current);
+		long currentId = idOf(current);
 		if(now > currentTimeStampSec) {
-			globalCounter = nextCounter;
-			currentId = 0;
-			currentTimeStampSec = now;
+			return pack(now, Math.min(n - 1, maxPredictedId(dt)));
 		} else if(now == currentTimeStampSec) {
-			long maxPredictedId = Math.min(maxId, dt * maxIdPerMSec);
-			if (currentId >= maxPredictedId) {
-				sleepOneMSec();
-				return getId();
+			long maxPredictedId = maxPredictedId(dt);
+			if (currentId < maxPredictedId) {
+				return current + Math.min(n, maxPredictedId - currentId);
+			} else if (maxLookahead > 0) {
+				// with lookahead the rest of the current time stamp is not paced;
+				// the next time stamp is borrowed only when it is used up
+				if (currentId < maxId) {
+					return current + Math.min(n, maxId - currentId);
+				}
+				return pack(currentTimeStampSec + 1, Math.min(n - 1, maxId));
 			} else {
-				globalCounter = nextCounter;
-				currentId = currentId+1;
+				return WAIT;
+			}
+		} else if (currentTimeStampSec - now <= maxLookahead) {
+			// borrowed by the lookahead: IDs go at full speed, but the lead never exceeds maxLookahead
+			if (currentId < maxId) {
+				return current + Math.min(n, maxId - currentId);
 			}
+			return currentTimeStampSec - now < maxLookahead ? pack(currentTimeStampSec + 1, Math.min(n - 1, maxId)) : WAIT;
 		} else {
-			Utils.sleepOneMSec(nextCounter,sleepAfter);
+			// further ahead than the lookahead can get: the clock moved back.
+			// Never claim more than one slowdown step at once
+			long limit = Math.min(n, sleepAfter);
 			if (currentId >= maxId) {
-				globalCounter = nextCounter;
-				currentId = 0;
-				currentTimeStampSec = currentTimeStampSec+1;
+				return pack(currentTimeStampSec + 1, Math.min(limit - 1, maxId)) | AHEAD;
 			} else {
-				globalCounter = nextCounter;
-				currentId = currentId+1;
+				return (current + Math.min(limit, maxId - currentId)) | AHEAD;
 			}
 		}
+	}
+
+	/**
+	 * First claimed id: zero if the claim started a new time stamp, next to the current one otherwise.
+	 */
+	private long firstIdOf(long current, long next) {
+		return timeStampOf(current) == timeStampOf(next) ? idOf(current) + 1 : 0;
+	}
+
+	private long pack(long timeStampSec, long id) {
+		assert timeStampSec >= stateBase : "timestamp is below the generator start time";
+		return ((timeStampSec - stateBase) << idBits) | id;
+	}
+
+	private long timeStampOf(long packedState) {
+		return (packedState >>> idBits) + stateBase;
+	}
+
+	private long idOf(long packedState) {
+		return packedState & idMask;
+	}
+
+	/**
+	 * Resets current time stamp sec and current id.
+	 *
+	 * @param timeStampSec the time stamp sec
+	 * @param currentId    the current id
+	 */
+	protected void resetState(long timeStampSec, long currentId) {
+		assert currentId <= maxId : "current ID exceeded max id";
+		state.set(pack(timeStampSec, currentId));
+	}
+
+	/**
+	 * Gets current time stamp sec.
+	 *
+	 * @return the current time stamp sec
+	 */
+	protected long getCurrentTimeStampSec() {
+		return timeStampOf(state.get());
+	}
 
-		return buildId();
+	/**
+	 * Gets current id.
+	 *
+	 * @return the current id
+	 */
+	protected long getCurrentId() {
+		return idOf(state.get());
 	}
 
 	/**
 	 * Build id long.
 	 *
+	 * @param timeStampSec the time stamp sec
+	 * @param currentId    the current id
 	 * @return the long
 	 */
-	abstract long buildId();
+	abstract long buildId(long timeStampSec, long currentId);
 
 	/**
 	 * Parse id parts.
@@ -144,6 +861,130 @@ public abstract class AbstractIdGenerator implements IdSource {
 	 */
 	public abstract IdParts parse(long id);
 
+	/**
+	 * Time stamp of the id in the time unit of the generator, same as parse(id).timestamp().
+	 *
+	 * @param id the id
+	 * @return the time stamp
+	 */
+	public abstract long timestampOf(long id);
+
+	/**
+	 * Host id of the id, same as parse(id).hostId().
+	 *
+	 * @param id the id
+	 * @return the host id, or -1
+	 */
+	public abstract int hostIdOf(long id);
+
+	/**
+	 * Counter of the id within its time stamp, same as parse(id).currentId().
+	 *
+	 * @param id the id
+	 * @return the counter
+	 */
+	public abstract long counterOf(long id);
+
+	/**
+	 * Parses IDs in bulk. Components of ids[i] are written to timestamps[i], hostIds[i] and currentIds[i]
+	 * with the same values parse(ids[i]) returns, but without allocating IdParts.
+	 * A null output array skips that component.
+	 *
+	 * @param ids        the ids
+	 * @param timestamps the timestamps, or null
+	 * @param hostIds    the host ids, or null
+	 * @param currentIds the current ids, or null
+	 */
+	public void parse(long[] ids, long[] timestamps, int[] hostIds, long[] currentIds) {
+		Objects.requireNonNull(ids, "Expected IDs");
+		checkParseOutput(ids.length, timestamps == null ? -1 : timestamps.length, hostIds == null ? -1 : hostIds.length, currentIds == null ? -1 : currentIds.length);
+		parse(ids, 0, ids.length, timestamps, hostIds, currentIds, 0);
+	}
+
+	/**
+	 * Parses remaining IDs of the buffer in bulk, starting at output index 0. Buffer position is not changed.
+	 * A null output array skips that component.
+	 *
+	 * @param ids        the ids
+	 * @param timestamps the timestamps, or null
+	 * @param hostIds    the host ids, or null
+	 * @param currentIds the current ids, or null
+	 */
+	public void parse(LongBuffer ids, long[] timestamps, int[] hostIds, long[] currentIds) {
+		Objects.requireNonNull(ids, "Expected IDs");
+		int length = ids.remaining();
+		checkParseOutput(length, timestamps == null ? -1 : timestamps.length, hostIds == null ? -1 : hostIds.length, currentIds == null ? -1 : currentIds.length);
+		if (ids.hasArray()) {
+			parse(ids.array(), ids.arrayOffset() + ids.position(), length, timestamps, hostIds, currentIds, 0);
+		} else {
+			long[] chunk = new long[Math.min(length, PARSE_CHUNK)];
+			for (int done = 0; done < length; done += chunk.length) {
+				int n = Math.min(chunk.length, length - done);
+				ids.get(ids.position() + done, chunk, 0, n);
+				parse(chunk, 0, n, timestamps, hostIds, currentIds, done);
+			}
+		}
+	}
+
+	private static final int PARSE_CHUNK = 4096;
+
+	private static void checkParseOutput(int length, int... outputLengths) {
+		for (int outputLength : outputLengths) {
+			if (outputLength >= 0 && outputLength < length) {
+				throw new IdSourceException("Output array is shorter than number of IDs: " + outputLength + " < " + length);
+			}
+		}
+	}
+
+	/**
+	 * Parses ids[offset, offset+length) into output arrays starting at outOffset,
+	 * running one simple loop per requested component. This default goes through the extractors;
+	 * generators override it with their masks and divisors inlined, so the loops stay monomorphic.
+	 *
+	 * @param ids        the ids
+	 * @param offset     the offset of the first id
+	 * @param length     number of ids
+	 * @param timestamps the timestamps, or null
+	 * @param hostIds    the host ids, or null
+	 * @param currentIds the current ids, or null
+	 * @param outOffset  the offset in output arrays
+	 */
+	void parse(long[] ids, int offset, int length, long[] timestamps, int[] hostIds, long[] currentIds, int outOffset) {
+		if (timestamps != null) {
+			for (int i = 0; i < length; i++) {
+				timestamps[outOffset + i] = timestampOf(ids[offset + i]);
+			}
+		}
+		if (hostIds != null) {
+			for (int i = 0; i < length; i++) {
+				hostIds[outOffset + i] = hostIdOf(ids[offset + i]);
+			}
+		}
+		if (currentIds != null) {
+			for (int i = 0; i < length; i++) {
+				currentIds[outOffset + i] = counterOf(ids[offset + i]);
+			}
+		}
+	}
+
+	/**
+	 * Value parse() adds to the decoded time stamp to restore the epoch.
+	 *
+	 * @return the long
+	 */
+	long parsedTimestampOffset() {
+		return this.tf == TimeTransformer.adjustedEpoch ? TimeTransformer.adjustingEpochTimestamp : 0;
+	}
+
+	/**
+	 * Gets time unit of the time stamps returned by parse().
+	 *
+	 * @return the time unit
+	 */
+	public TimeUnit getTimeUnit() {
+		return timeUnit;
+	}
+
 	/**
 	 * Sets time transformer.
 	 *
@@ -154,12 +995,14 @@ public abstract class AbstractIdGenerator implements IdSource {
 	}
 
 	/**
-	 * Sets timestamp supplier.
+	 * Sets timestamp supplier. A {@link CachedClock} is read without splitting milliseconds into seconds.
 	 *
 	 * @param timestamp the timestamp
 	 */
 	public void setTimestampSupplier(LongSupplier timestamp) {
 		this.timestamp = timestamp;
+		this.cachedClock = timestamp instanceof CachedClock cc ? cc : null;
+		this.nanoClock = timestamp instanceof NanoClock nc ? nc : null;
 	}
 
 	/**
@@ -168,7 +1011,7 @@ public abstract class AbstractIdGenerator implements IdSource {
 	 * @return the global counter
 	 */
 	public long getGlobalCounter() {
-		return globalCounter;
+		return globalCounter.sum();
 	}
 
 }
@@ -15,6 +15,8 @@ public final class BinaryIdGenerator extends AbstractIdGenerator {
 	private final long hostId;
 	private final short timestampShift;
 	private final short idShift;
+	private final long timestampMask;
+	private final long hostIdMask;
 
 	/**
 	 * Instantiates a new Time host id generator.
@@ -32,6 +34,8 @@ public final class BinaryIdGenerator extends AbstractIdGenerator {
 		}
 		this.timestampShift = (short) (32 - timestampExtraBits);
 		this.idShift = (short) hostIdBits;
+		this.timestampMask = Utils.setLowerBits(timestampShift);
+		this.hostIdMask = Utils.setLowerBits(idShift);
 		this.hostId = hostId;
 		this.tf = TimeTransformer.adjustedEpoch;
 	}
@@ -52,9 +56,9 @@ public final class BinaryIdGenerator extends AbstractIdGenerator {
 		this(startTimeStampSec, (short) 0,0,0);
 	}
 
-	long buildId() {
+	long buildId(long timeStampSec, long currentId) {
 		assert currentId <= maxId : "current ID exceeded max id";
-		long time = tf.transformTimestamp(currentTimeStampSec);
+		long time = tf.transformTimestamp(timeStampSec);
 		long shiftedTime = time << timestampShift;
 		long shiftedId = currentId << idShift;
 		long id =  shiftedTime | shiftedId | this.hostId;
@@ -64,33 +68,64 @@ public final class BinaryIdGenerator extends AbstractIdGenerator {
 
 	@Override
 	public IdParts parse(long id) {
-		long timestamp = id >>> timestampShift;
-		long timestampMask = Utils.setLowerBits(timestampShift);
-		long removedTimestamp = id & timestampMask;
-		long currentId = removedTimestamp >>> idShift;
-		long idMask = Utils.setLowerBits(idShift);
-		long removedTimestampAndId = id & idMask;
-		int hostId = (int) removedTimestampAndId;
-		if(hostId > maxHostId) {
-			hostId = -1;
+		return new IdParts(timestampOf(id), hostIdOf(id), counterOf(id));
+	}
+
+	@Override
+	public long timestampOf(long id) {
+		return (id >>> timestampShift) + parsedTimestampOffset();
+	}
+
+	@Override
+	public int hostIdOf(long id) {
+		int hostId = (int) (id & hostIdMask);
+		return hostId > maxHostId ? -1 : hostId;
+	}
+
+	@Override
+	public long counterOf(long id) {
+		return (id & timestampMask) >>> idShift;
+	}
+
+	@Override
+	void parse(long[] ids, int offset, int length, long[] timestamps, int[] hostIds, long[] currentIds, int outOffset) {
+		final int tsShift = timestampShift;
+		final int hostIdBits = idShift;
+		if (timestamps != null) {
+			final long restore = parsedTimestampOffset();
+			for (int i = 0; i < length; i++) {
+				timestamps[outOffset + i] = (ids[offset + i] >>> tsShift) + restore;
+			}
 		}
-		TimeTransformer tt;
-		if(this.tf == TimeTransformer.adjustedEpoch) {
-			tt = TimeTransformer.restoredEpoch;
-		} else {
-			tt = TimeTransformer.identity;
+		if (hostIds != null) {
+			final long hostMask = hostIdMask;
+			final long hostLimit = maxHostId;
+			for (int i = 0; i < length; i++) {
+				int hostId = (int) (ids[offset + i] & hostMask);
+				hostIds[outOffset + i] = hostId > hostLimit ? -1 : hostId;
+			}
+		}
+		if (currentIds != null) {
+			final long tsMask = timestampMask;
+			for (int i = 0; i < length; i++) {
+				currentIds[outOffset + i] = (ids[offset + i] & tsMask) >>> hostIdBits;
+			}
 		}
-		return new IdParts(tt.transformTimestamp(timestamp),hostId,currentId);
 	}
 
 	public static BinaryIdGenerator fromLastKnownId(long lastId, short timestampExtraBits, int hostIdBits) {
 		var tmpIdGenerator = new BinaryIdGenerator(unixTimestamp(),timestampExtraBits,0,hostIdBits);
 		var parts = tmpIdGenerator.parse(lastId);
 		var idGenerator = new BinaryIdGenerator(parts.timestamp(),timestampExtraBits, parts.hostId(), hostIdBits);
-		idGenerator.currentId = parts.currentId();
+		idGenerator.resetState(parts.timestamp(), parts.currentId());
 		return idGenerator;
 	}
 
+	@Override
+	public long getHostId() {
+		return hostId;
+	}
+
 	@Override
 	public String toString() {
         return "BinaryIdGenerator{" +
@@ -0,0 +1,146 @@
+package com.aegisql.id_builder.impl;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * The type Cached clock.
+ * Coarse wall clock that publishes the time already split into seconds and milliseconds,
+ * so that a generator reads one volatile field instead of calling currentTimeMillis()
+ * and dividing on every ID.
+ * <p>
+ * Two refresh modes are available:
+ * <ul>
+ * <li>ticking - a background daemon thread re-reads the wall clock every period;
+ * readers only read the published value.</li>
+ * <li>on read - the value is re-read from the wall clock by the first reader that finds it
+ * older than the period, measured with System.nanoTime().</li>
+ * </ul>
+ * The period is the precision: the published time can be behind the wall clock by up to one period.
+ * A period under one millisecond adds no precision, since the wall clock is read in milliseconds.
+ * Use it with {@link AbstractIdGenerator#setTimestampSupplier(LongSupplier)}.
+ */
+public final class CachedClock implements LongSupplier, AutoCloseable {
+
+	/**
+	 * Number of low bits holding milliseconds in the packed value.
+	 */
+	static final int MILLIS_BITS = 10;
+	/**
+	 * The Millis mask.
+	 */
+	static final long MILLIS_MASK = (1L << MILLIS_BITS) - 1;
+
+	private record Tick(long secondsAndMillis, long expiresNanos) {
+	}
+
+	private final LongSupplier wallClock;
+	private final long periodNanos;
+	private final boolean refreshOnRead;
+	private final Thread ticker;
+	private volatile Tick tick;
+	private volatile boolean running = true;
+
+	private CachedClock(LongSupplier wallClock, long periodMicros, boolean refreshOnRead) {
+		if (periodMicros < 1) {
+			throw new IllegalArgumentException("Period must be >= 1 microsecond");
+		}
+		this.wallClock = wallClock;
+		this.periodNanos = periodMicros * 1000;
+		this.refreshOnRead = refreshOnRead;
+		refresh();
+		if (refreshOnRead) {
+			this.ticker = null;
+		} else {
+			this.ticker = Thread.ofPlatform().daemon().name("id-builder-cached-clock").unstarted(this::tick);
+			this.ticker.start();
+		}
+	}
+
+	/**
+	 * Clock refreshed by a background daemon thread every period.
+	 *
+	 * @param periodMicros the period in microseconds
+	 * @return the cached clock
+	 */
+	public static CachedClock ticking(long periodMicros) {
+		return new CachedClock(System::currentTimeMillis, periodMicros, false);
+	}
+
+	/**
+	 * Clock refreshed by readers, when System.nanoTime() says the value is older than the period.
+	 *
+	 * @param periodMicros the period in microseconds
+	 * @return the cached clock
+	 */
+	public static CachedClock refreshedOnRead(long periodMicros) {
+		return new CachedClock(System::currentTimeMillis, periodMicros, true);
+	}
+
+	private void tick() {
+		while (running) {
+			LockSupport.parkNanos(periodNanos);
+			refresh();
+		}
+	}
+
+	private Tick refresh() {
+		long nowMs = wallClock.getAsLong();
+		long now = nowMs / 1000;
+		Tick t = new Tick(now << MILLIS_BITS | (nowMs - now * 1000), System.nanoTime() + periodNanos);
+		tick = t;
+		return t;
+	}
+
+	/**
+	 * Current time packed as seconds in the upper bits and milliseconds of the second in the lower MILLIS_BITS.
+	 *
+	 * @return the packed time
+	 */
+	public long secondsAndMillis() {
+		Tick t = tick;
+		if (refreshOnRead && System.nanoTime() - t.expiresNanos() >= 0) {
+			t = refresh();
+		}
+		return t.secondsAndMillis();
+	}
+
+	/**
+	 * Current time in milliseconds.
+	 *
+	 * @return the time in milliseconds
+	 */
+	@Override
+	public long getAsLong() {
+		long packed = secondsAndMillis();
+		return (packed >>> MILLIS_BITS) * 1000 + (packed & MILLIS_MASK);
+	}
+
+	/**
+	 * Gets period in microseconds.
+	 *
+	 * @return the period
+	 */
+	public long getPeriodMicros() {
+		return periodNanos / 1000;
+	}
+
+	/**
+	 * Stops the background thread of a ticking clock. Published time is frozen after that.
+	 */
+	@Override
+	public void close() {
+		running = false;
+		if (ticker != null) {
+			LockSupport.unpark(ticker);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "CachedClock{" +
+				"periodMicros=" + getPeriodMicros() +
+				", mode=" + (refreshOnRead ? "refreshedOnRead" : "ticking") +
+				'}';
+	}
+}
@@ -0,0 +1,28 @@
+package com.aegisql.id_builder.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The type Clock recovery event.
+ * Spans the time from a clock step back until the clock caught up with the generator.
+ */
+@Name("com.aegisql.id_builder.ClockRecovery")
+@Label("ID Clock Recovery")
+@Category("ID Builder")
+@Description("ID generator ran ahead of the clock and slowed down until the clock caught up")
+@StackTrace(false)
+@Threshold("0 ms")
+final class ClockRecoveryEvent extends jdk.jfr.Event {
+
+	@Label("Layout")
+	String layout;
+
+	@Label("Host ID")
+	long hostId;
+
+}
@@ -0,0 +1,37 @@
+package com.aegisql.id_builder.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The type Clock step back event.
+ * The generator found itself ahead of the clock and started to slow down.
+ */
+@Name("com.aegisql.id_builder.ClockStepBack")
+@Label("ID Clock Step Back")
+@Category("ID Builder")
+@Description("ID generator runs ahead of the clock, typically after the clock was set back")
+@StackTrace(false)
+final class ClockStepBackEvent extends jdk.jfr.Event {
+
+	@Label("Layout")
+	String layout;
+
+	@Label("Host ID")
+	long hostId;
+
+	@Label("Generator Time Stamp Sec")
+	long generatorTimeStampSec;
+
+	@Label("Clock Time Stamp Sec")
+	long clockTimeStampSec;
+
+	@Label("Lead")
+	@Timespan(Timespan.MILLISECONDS)
+	long lead;
+
+}
@@ -0,0 +1,26 @@
+package com.aegisql.id_builder.impl;
+
+/**
+ * The Enum ConcurrencyMode.
+ * Defines how concurrent getId() calls of an {@link AbstractIdGenerator} are serialized.
+ */
+public enum ConcurrencyMode {
+
+	/**
+	 * Generator state is advanced inside a monitor. Default mode.
+	 * On Java 21 a virtual thread blocked on a monitor pins its carrier thread.
+	 */
+	SYNCHRONIZED,
+
+	/**
+	 * Generator state is advanced while holding a ReentrantLock.
+	 * Unlike a monitor, the lock never pins a virtual thread to its carrier thread.
+	 */
+	LOCK,
+
+	/**
+	 * Generator state is a single packed word advanced with compare-and-set. No thread ever blocks another.
+	 */
+	LOCK_FREE
+
+}
@@ -3,7 +3,7 @@ package com.aegisql.id_builder.impl;
 import com.aegisql.id_builder.IdParts;
 import com.aegisql.id_builder.IdSourceException;
 
-import com.aegisql.id_builder.TimeTransformer;
+import com.aegisql.id_builder.utils.Divisor;
 import com.aegisql.id_builder.utils.Utils;
 import static com.aegisql.id_builder.TimeTransformer.identity;
 import static com.aegisql.id_builder.utils.Utils.unixTimestamp;
@@ -16,6 +16,9 @@ public final class DecimalIdGenerator extends AbstractIdGenerator {
 	private final long hostId;
 	private final long hostIdBase;
 	private final long timeIdBase;
+	private final long epochAdjust;
+	private final Divisor timeDivisor;
+	private final Divisor idDivisor;
 
 	/**
 	 * Instantiates a new Time host id generator.
@@ -33,6 +36,9 @@ public final class DecimalIdGenerator extends AbstractIdGenerator {
 		this.hostId = hostId;
 		this.hostIdBase = (long) hostId * this.idCeil;
 		this.timeIdBase   = this.hostIdCeil * this.idCeil;
+		this.epochAdjust  = _10XX19 / this.timeIdBase;
+		this.timeDivisor  = new Divisor(this.timeIdBase);
+		this.idDivisor    = new Divisor(this.idCeil);
 		this.tf = identity;
 	}
 
@@ -63,33 +69,63 @@ public final class DecimalIdGenerator extends AbstractIdGenerator {
 		this(hostId,System.currentTimeMillis()/1000,idPos,hostIdPos);
 	}
 
-	long buildId() {
+	long buildId(long timeStampSec, long currentId) {
 		assert currentId <= maxId : "current ID exceeded max id";
-		return tf.transformTimestamp(currentTimeStampSec) * timeIdBase + hostIdBase + currentId;
+		return tf.transformTimestamp(timeStampSec) * timeIdBase + hostIdBase + currentId;
 	}
 
 	private final static long _10XX19 = 1000000000000000000L;
 	@Override
 	public IdParts parse(long id) {
-		long adjustTimestamp = 0;
-		if(id < _10XX19) {
-			adjustTimestamp = _10XX19/(idCeil*hostIdCeil);
-			id = _10XX19 +id;
+		return new IdParts(timestampOf(id), hostIdOf(id), counterOf(id));
+	}
+
+	@Override
+	public long timestampOf(long id) {
+		long timestamp = id < _10XX19 ? timeDivisor.divide(id + _10XX19) - epochAdjust : timeDivisor.divide(id);
+		return timestamp + parsedTimestampOffset();
+	}
+
+	@Override
+	public int hostIdOf(long id) {
+		long dcHost = idDivisor.divide(timeDivisor.remainder(unsigned19(id)));
+		return dcHost >= maxHostId ? -1 : (int) dcHost;
+	}
+
+	@Override
+	public long counterOf(long id) {
+		return idDivisor.remainder(unsigned19(id));
+	}
+
+	@Override
+	void parse(long[] ids, int offset, int length, long[] timestamps, int[] hostIds, long[] currentIds, int outOffset) {
+		final Divisor timeDiv = timeDivisor;
+		final Divisor idDiv = idDivisor;
+		if (timestamps != null) {
+			final long restore = parsedTimestampOffset();
+			final long adjust = epochAdjust;
+			for (int i = 0; i < length; i++) {
+				long id = ids[offset + i];
+				timestamps[outOffset + i] = (id < _10XX19 ? timeDiv.divide(id + _10XX19) - adjust : timeDiv.divide(id)) + restore;
+			}
 		}
-		long timestamp = id / (idCeil*hostIdCeil);
-		long dcHostId = id - timestamp * (idCeil*hostIdCeil);
-		long dcHost = dcHostId / idCeil;
-		long currentId = dcHostId - dcHost * idCeil;
-		if(dcHost >= maxHostId) {
-			dcHost = -1;
+		if (hostIds != null) {
+			final long hostLimit = maxHostId;
+			for (int i = 0; i < length; i++) {
+				long dcHost = idDiv.divide(timeDiv.remainder(unsigned19(ids[offset + i])));
+				hostIds[outOffset + i] = dcHost >= hostLimit ? -1 : (int) dcHost;
+			}
 		}
-		TimeTransformer tt;
-		if(this.tf == TimeTransformer.adjustedEpoch) {
-			tt = TimeTransformer.restoredEpoch;
-		} else {
-			tt = TimeTransformer.identity;
+		if (currentIds != null) {
+			for (int i = 0; i < length; i++) {
+				currentIds[outOffset + i] = idDiv.remainder(unsigned19(ids[offset + i]));
+			}
 		}
-		return new IdParts(tt.transformTimestamp(timestamp-adjustTimestamp), (int) dcHost, currentId);
+	}
+
+	// IDs below 10^18 are shifted into the 19-digit range, so remainders are taken from a positive number
+	private static long unsigned19(long id) {
+		return id < _10XX19 ? id + _10XX19 : id;
 	}
 
 	/**
@@ -147,10 +183,15 @@ public final class DecimalIdGenerator extends AbstractIdGenerator {
 		var tmpIdGenerator = new DecimalIdGenerator(0, unixTimestamp(), hostIdPos, idPos);
 		var parts = tmpIdGenerator.parse(lastKnownId);
 		var idGenerator = new DecimalIdGenerator(parts.hostId(),parts.timestamp(),hostIdPos,idPos);
-		idGenerator.currentId = parts.currentId();
+		idGenerator.resetState(parts.timestamp(), parts.currentId());
 		return idGenerator;
 	}
 
+	@Override
+	public long getHostId() {
+		return hostId;
+	}
+
 	@Override
 	public String toString() {
         return "DecimalIdGenerator{" +
@@ -0,0 +1,58 @@
+package com.aegisql.id_builder.impl;
+
+import com.aegisql.id_builder.IdSource;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+import static com.aegisql.id_builder.utils.Utils.assertPositive;
+
+/**
+ * The type Id batch publisher.
+ * Publishes an unbounded sequence of long[] chunks of batchSize IDs from any IdSource.
+ * Every chunk counts as one item of subscriber's demand.
+ */
+public final class IdBatchPublisher implements Flow.Publisher<long[]> {
+
+	private final IdSource idSource;
+	private final int batchSize;
+	private final Executor executor;
+
+	/**
+	 * Instantiates a new Id batch publisher.
+	 *
+	 * @param idSource  the id source
+	 * @param batchSize number of IDs in a chunk
+	 * @param executor  the executor delivering chunks; may be blocked while the generator is throttled
+	 */
+	public IdBatchPublisher(IdSource idSource, int batchSize, Executor executor) {
+		this.idSource = Objects.requireNonNull(idSource, "Expected ID source");
+		assertPositive(batchSize, "Batch size must be >= 1");
+		this.batchSize = batchSize;
+		this.executor = Objects.requireNonNull(executor, "Expected executor");
+	}
+
+	/**
+	 * Instantiates a new Id batch publisher delivering chunks on virtual threads.
+	 *
+	 * @param idSource  the id source
+	 * @param batchSize number of IDs in a chunk
+	 */
+	public IdBatchPublisher(IdSource idSource, int batchSize) {
+		this(idSource, batchSize, Thread.ofVirtual().name("id-builder-publisher")::start);
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super long[]> subscriber) {
+		Objects.requireNonNull(subscriber, "Expected subscriber");
+		subscriber.onSubscribe(new IdSubscription<long[]>(subscriber, idSource, batchSize, executor) {
+			@Override
+			long emit(long requested) {
+				subscriber.onNext(idSource.reserve(batchSize).toArray());
+				return 1;
+			}
+		});
+	}
+
+}
@@ -0,0 +1,176 @@
+package com.aegisql.id_builder.impl;
+
+import com.aegisql.id_builder.IdSourceException;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.aegisql.id_builder.utils.Utils.assertPositive;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * The type Id checkpoint.
+ * High-water mark of a generator, (time stamp sec, current id), kept in a small memory-mapped file.
+ * The generator moves the mark ahead in chunks of IDs and never returns an ID above the mark,
+ * so after a restart, even with the clock stepped back, it continues above every ID issued before.
+ * Writes to the mapping survive a process crash; force additionally flushes every write
+ * to the storage device, which survives a power loss at the cost of an fsync per chunk.
+ * <p>
+ * File layout: magic int, version int, layout fingerprint long, time stamp sec long, current id long.
+ * The time stamp is written before the id, so a torn update never moves the mark backwards.
+ * Use it with {@link AbstractIdGenerator#setCheckpoint(IdCheckpoint)}.
+ */
+public final class IdCheckpoint {
+
+	private static final int MAGIC = 0x49444350; // "IDCP"
+	private static final int VERSION = 1;
+	private static final int SIZE = 64;
+	private static final int LAYOUT = 8;
+	private static final int TIMESTAMP = 16;
+	private static final int CURRENT_ID = 24;
+
+	private final Path path;
+	private final int chunk;
+	private final boolean force;
+	private final MappedByteBuffer buffer;
+	/**
+	 * Serializes writers. Held only while the mark moves, once per chunk.
+	 */
+	final ReentrantLock lock = new ReentrantLock();
+
+	private IdCheckpoint(Path path, int chunk, boolean force) {
+		assertPositive(chunk, "Checkpoint chunk must be >= 1");
+		this.path = path;
+		this.chunk = chunk;
+		this.force = force;
+		try (FileChannel channel = FileChannel.open(path, CREATE, READ, WRITE)) {
+			this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SIZE);
+		} catch (IOException e) {
+			throw new IdSourceException("Failed to map checkpoint file " + path, e);
+		}
+		if (isInitialized() && buffer.getInt(4) != VERSION) {
+			throw new IdSourceException("Unsupported checkpoint version " + buffer.getInt(4) + " in " + path);
+		}
+	}
+
+	/**
+	 * Opens or creates the checkpoint file.
+	 *
+	 * @param path  the path
+	 * @param chunk number of IDs the mark moves ahead of the generator
+	 * @param force whether every write is flushed to the storage device
+	 * @return the id checkpoint
+	 */
+	public static IdCheckpoint open(Path path, int chunk, boolean force) {
+		return new IdCheckpoint(path, chunk, force);
+	}
+
+	/**
+	 * Whether the file holds a mark.
+	 *
+	 * @return the boolean
+	 */
+	public boolean isInitialized() {
+		return buffer.getInt(0) == MAGIC;
+	}
+
+	/**
+	 * Gets layout fingerprint of the generator that wrote the mark.
+	 *
+	 * @return the layout
+	 */
+	long getLayout() {
+		return buffer.getLong(LAYOUT);
+	}
+
+	/**
+	 * Gets time stamp sec of the mark.
+	 *
+	 * @return the time stamp sec
+	 */
+	public long getTimeStampSec() {
+		return buffer.getLong(TIMESTAMP);
+	}
+
+	/**
+	 * Gets current id of the mark.
+	 *
+	 * @return the current id
+	 */
+	public long getCurrentId() {
+		return buffer.getLong(CURRENT_ID);
+	}
+
+	/**
+	 * Gets chunk.
+	 *
+	 * @return the chunk
+	 */
+	public int getChunk() {
+		return chunk;
+	}
+
+	/**
+	 * Is force boolean.
+	 *
+	 * @return the boolean
+	 */
+	public boolean isForce() {
+		return force;
+	}
+
+	/**
+	 * Gets path.
+	 *
+	 * @return the path
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Writes the header of a new mark.
+	 *
+	 * @param layout the layout fingerprint
+	 */
+	void initialize(long layout) {
+		buffer.putLong(LAYOUT, layout);
+		buffer.putInt(4, VERSION);
+		buffer.putInt(0, MAGIC);
+		flush(0, SIZE);
+	}
+
+	/**
+	 * Moves the mark. Caller holds the lock.
+	 *
+	 * @param timeStampSec the time stamp sec
+	 * @param currentId    the current id
+	 */
+	void write(long timeStampSec, long currentId) {
+		buffer.putLong(TIMESTAMP, timeStampSec);
+		buffer.putLong(CURRENT_ID, currentId);
+		flush(TIMESTAMP, 2 * Long.BYTES);
+	}
+
+	private void flush(int index, int length) {
+		if (force) {
+			buffer.force(index, length);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "IdCheckpoint{" +
+				"path=" + path +
+				", chunk=" + chunk +
+				", force=" + force +
+				", timeStampSec=" + getTimeStampSec() +
+				", currentId=" + getCurrentId() +
+				'}';
+	}
+}
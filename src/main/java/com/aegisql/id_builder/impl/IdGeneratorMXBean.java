@@ -0,0 +1,68 @@
+package com.aegisql.id_builder.impl;
+
+/**
+ * The Interface IdGeneratorMXBean.
+ * JMX view of {@link IdGeneratorMetrics}.
+ */
+public interface IdGeneratorMXBean {
+
+	/**
+	 * Number of issued IDs.
+	 *
+	 * @return the long
+	 */
+	long getIssuedIds();
+
+	/**
+	 * Number of claims that found the budget of the current millisecond exhausted and had to wait.
+	 *
+	 * @return the long
+	 */
+	long getSaturations();
+
+	/**
+	 * Number of waits: throttle waits and slow down pauses while running ahead of the clock.
+	 *
+	 * @return the long
+	 */
+	long getWaits();
+
+	/**
+	 * Total time spent in waits, in nanoseconds.
+	 *
+	 * @return the long
+	 */
+	long getWaitNanos();
+
+	/**
+	 * Number of times the generator started to run ahead of the clock and slowed down,
+	 * typically after the clock shifted back.
+	 *
+	 * @return the long
+	 */
+	long getPastShiftEpisodes();
+
+	/**
+	 * How far, in seconds, the generator currently runs ahead of the clock.
+	 *
+	 * @return the long
+	 */
+	long getLeadSec();
+
+	/**
+	 * How far, in milliseconds, the wall clock is ahead of the clock of the generator, negative if it is behind.
+	 * Non zero while a slewing {@link NanoClock} absorbs a wall clock step.
+	 *
+	 * @return the long
+	 */
+	long getClockDriftMillis();
+
+	/**
+	 * Number of failed compare-and-set attempts in LOCK_FREE mode and of lock acquisitions
+	 * that found the lock taken in LOCK mode. Monitor contention of SYNCHRONIZED mode is not counted.
+	 *
+	 * @return the long
+	 */
+	long getContentions();
+
+}
@@ -0,0 +1,135 @@
+package com.aegisql.id_builder.impl;
+
+import com.aegisql.id_builder.IdSourceException;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The type Id generator metrics.
+ * Counters of an {@link AbstractIdGenerator}. Counters are striped LongAdders updated only on slow paths:
+ * waits, lost races and clock regressions, so metrics are always on.
+ */
+public final class IdGeneratorMetrics implements IdGeneratorMXBean {
+
+	private final AbstractIdGenerator idGenerator;
+	final LongAdder saturations = new LongAdder();
+	final LongAdder waits = new LongAdder();
+	final LongAdder waitNanos = new LongAdder();
+	final LongAdder pastShiftEpisodes = new LongAdder();
+	final LongAdder contentions = new LongAdder();
+	private ObjectName objectName;
+
+	/**
+	 * Instantiates a new Id generator metrics.
+	 *
+	 * @param idGenerator the id generator
+	 */
+	IdGeneratorMetrics(AbstractIdGenerator idGenerator) {
+		this.idGenerator = idGenerator;
+	}
+
+	@Override
+	public long getIssuedIds() {
+		return idGenerator.getGlobalCounter();
+	}
+
+	@Override
+	public long getSaturations() {
+		return saturations.sum();
+	}
+
+	@Override
+	public long getWaits() {
+		return waits.sum();
+	}
+
+	@Override
+	public long getWaitNanos() {
+		return waitNanos.sum();
+	}
+
+	@Override
+	public long getPastShiftEpisodes() {
+		return pastShiftEpisodes.sum();
+	}
+
+	@Override
+	public long getLeadSec() {
+		return idGenerator.getLeadSec();
+	}
+
+	@Override
+	public long getClockDriftMillis() {
+		return idGenerator.getClockDriftMillis();
+	}
+
+	@Override
+	public long getContentions() {
+		return contentions.sum();
+	}
+
+	/**
+	 * Records a wait.
+	 *
+	 * @param nanos the duration
+	 */
+	void recordWait(long nanos) {
+		waits.increment();
+		waitNanos.add(nanos);
+	}
+
+	/**
+	 * Registers the metrics in the platform MBean server
+	 * as com.aegisql.id_builder:type=IdGenerator,name=name.
+	 *
+	 * @param name the name
+	 * @return the object name
+	 */
+	public synchronized ObjectName registerMBean(String name) {
+		try {
+			ObjectName on = ObjectName.getInstance("com.aegisql.id_builder:type=IdGenerator,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, on);
+			this.objectName = on;
+			return on;
+		} catch (JMException e) {
+			throw new IdSourceException("Failed to register MBean " + name, e);
+		}
+	}
+
+	/**
+	 * Unregisters the metrics from the platform MBean server, if registered.
+	 */
+	public synchronized void unregisterMBean() {
+		if (objectName == null) {
+			return;
+		}
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+		} catch (JMException e) {
+			throw new IdSourceException("Failed to unregister MBean " + objectName, e);
+		} finally {
+			objectName = null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "IdGeneratorMetrics{" +
+				"issuedIds=" + getIssuedIds() +
+				", saturations=" + getSaturations() +
+				", waits=" + getWaits() +
+				", waitNanos=" + getWaitNanos() +
+				", pastShiftEpisodes=" + getPastShiftEpisodes() +
+				", leadSec=" + getLeadSec() +
+				", clockDriftMillis=" + getClockDriftMillis() +
+				", contentions=" + getContentions() +
+				'}';
+	}
+}
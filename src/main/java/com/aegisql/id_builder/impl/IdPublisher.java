@@ -0,0 +1,64 @@
+package com.aegisql.id_builder.impl;
+
+import com.aegisql.id_builder.IdSource;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+import static com.aegisql.id_builder.utils.Utils.assertPositive;
+
+/**
+ * The type Id publisher.
+ * Publishes an unbounded sequence of IDs from any IdSource, honoring subscriber's demand.
+ * Demand is served by reserving up to batchSize IDs at once on the executor.
+ */
+public final class IdPublisher implements Flow.Publisher<Long> {
+
+	private final IdSource idSource;
+	private final int batchSize;
+	private final Executor executor;
+
+	/**
+	 * Instantiates a new Id publisher.
+	 *
+	 * @param idSource  the id source
+	 * @param batchSize max number of IDs reserved at once
+	 * @param executor  the executor delivering IDs; may be blocked while the generator is throttled
+	 */
+	public IdPublisher(IdSource idSource, int batchSize, Executor executor) {
+		this.idSource = Objects.requireNonNull(idSource, "Expected ID source");
+		assertPositive(batchSize, "Batch size must be >= 1");
+		this.batchSize = batchSize;
+		this.executor = Objects.requireNonNull(executor, "Expected executor");
+	}
+
+	/**
+	 * Instantiates a new Id publisher delivering IDs on virtual threads, reserving up to 1024 IDs at once.
+	 *
+	 * @param idSource the id source
+	 */
+	public IdPublisher(IdSource idSource) {
+		this(idSource, 1024, Thread.ofVirtual().name("id-builder-publisher")::start);
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super Long> subscriber) {
+		Objects.requireNonNull(subscriber, "Expected subscriber");
+		subscriber.onSubscribe(new IdSubscription<Long>(subscriber, idSource, batchSize, executor) {
+			@Override
+			long emit(long requested) {
+				var range = idSource.reserve((int) Math.min(requested, batchSize));
+				int size = range.size();
+				for (int i = 0; i < size; i++) {
+					if (cancelled) {
+						return i;
+					}
+					subscriber.onNext(range.get(i));
+				}
+				return size;
+			}
+		});
+	}
+
+}
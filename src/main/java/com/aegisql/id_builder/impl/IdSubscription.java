@@ -0,0 +1,116 @@
+package com.aegisql.id_builder.impl;
+
+import com.aegisql.id_builder.IdSource;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The type Id subscription.
+ * Subscription of IdPublisher and IdBatchPublisher. request(n) only adds demand;
+ * IDs are reserved and delivered by a drain task running on the executor,
+ * so the subscriber's thread never waits for a throttled generator.
+ *
+ * @param <T> the type of published items
+ */
+abstract class IdSubscription<T> implements Flow.Subscription, Runnable {
+
+	/**
+	 * The Subscriber.
+	 */
+	protected final Flow.Subscriber<? super T> subscriber;
+	/**
+	 * The Id source.
+	 */
+	protected final IdSource idSource;
+	/**
+	 * The Batch size.
+	 */
+	protected final int batchSize;
+	private final Executor executor;
+	private final AtomicLong demand = new AtomicLong();
+	private final AtomicInteger wip = new AtomicInteger();
+	private volatile Throwable error;
+	/**
+	 * The Cancelled.
+	 */
+	protected volatile boolean cancelled;
+
+	/**
+	 * Instantiates a new Id subscription.
+	 *
+	 * @param subscriber the subscriber
+	 * @param idSource   the id source
+	 * @param batchSize  the batch size
+	 * @param executor   the executor
+	 */
+	IdSubscription(Flow.Subscriber<? super T> subscriber, IdSource idSource, int batchSize, Executor executor) {
+		this.subscriber = subscriber;
+		this.idSource = idSource;
+		this.batchSize = batchSize;
+		this.executor = executor;
+	}
+
+	@Override
+	public void request(long n) {
+		if (cancelled) {
+			return;
+		}
+		if (n <= 0) {
+			// delivered by the drain, after the onNext in progress, never concurrently with it
+			error = new IllegalArgumentException("Requested number of items must be > 0, got " + n);
+			cancelled = true;
+		} else {
+			demand.getAndAccumulate(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+		}
+		if (wip.getAndIncrement() == 0) {
+			executor.execute(this);
+		}
+	}
+
+	@Override
+	public void cancel() {
+		cancelled = true;
+	}
+
+	@Override
+	public void run() {
+		int missed = 1;
+		do {
+			while (!cancelled) {
+				long requested = demand.get();
+				if (requested == 0) {
+					break;
+				}
+				long emitted;
+				try {
+					emitted = emit(requested);
+				} catch (RuntimeException e) {
+					cancelled = true;
+					subscriber.onError(e);
+					return;
+				}
+				// saturated demand stays unbounded, even if it saturated while emitting
+				demand.accumulateAndGet(emitted, (current, sub) -> current == Long.MAX_VALUE ? current : current - sub);
+			}
+			Throwable e = error;
+			if (e != null) {
+				error = null;
+				subscriber.onError(e);
+				return;
+			}
+			missed = wip.addAndGet(-missed);
+		} while (missed != 0);
+	}
+
+	/**
+	 * Emits up to requested items.
+	 *
+	 * @param requested the outstanding demand, Long.MAX_VALUE for unbounded
+	 * @return the number of emitted items
+	 */
+	abstract long emit(long requested);
+
+}
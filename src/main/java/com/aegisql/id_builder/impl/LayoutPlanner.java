@@ -0,0 +1,301 @@
+package com.aegisql.id_builder.impl;
+
+import com.aegisql.id_builder.IdSourceException;
+import com.aegisql.id_builder.TimeTransformer;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.aegisql.id_builder.utils.Utils.unixTimestamp;
+
+/**
+ * The type Layout planner.
+ * Enumerates decimal and binary ID layouts, reports their capacity and the date their time stamp runs out,
+ * checks them against rate, host count and lifetime requirements and recommends one.
+ * <p>
+ * A recommended layout leaves the required lifetime to the time stamp and gives every other digit or bit
+ * to the per-millisecond budget, since a short budget shows up as throttling.
+ * Command line: {@code java -cp id_builder.jar com.aegisql.id_builder.impl.LayoutPlanner
+ * --sustained 50000 --burst 200000 [--burstWindow 1000] --hosts 100 --years 20 [--kind decimal|binary]}
+ */
+public final class LayoutPlanner {
+
+	/**
+	 * The Kind of generator.
+	 */
+	public enum Kind {
+		/**
+		 * DecimalIdGenerator.
+		 */
+		DECIMAL,
+		/**
+		 * BinaryIdGenerator.
+		 */
+		BINARY
+	}
+
+	/**
+	 * The Requirements.
+	 *
+	 * @param sustainedPerSec sustained IDs per second per host, checked against the per-second capacity
+	 * @param burstPerSec     burst IDs per host requested within the burst window, checked against the per-millisecond budget
+	 * @param burstWindowMSec milliseconds the burst is spread over, 1000 for a burst rate per second
+	 * @param hosts           number of hosts
+	 * @param lifetimeYears   years the layout must last from now
+	 */
+	public record Requirements(long sustainedPerSec, long burstPerSec, int burstWindowMSec, int hosts, int lifetimeYears) {
+		/**
+		 * Validates requirements.
+		 */
+		public Requirements {
+			if (sustainedPerSec < 1 || burstPerSec < sustainedPerSec) {
+				throw new IdSourceException("Expected 1 <= sustained rate <= burst rate");
+			}
+			if (burstWindowMSec < 1 || burstWindowMSec > 1000) {
+				throw new IdSourceException("Expected 1 <= burst window <= 1000 ms");
+			}
+			if (hosts < 1) {
+				throw new IdSourceException("Number of hosts must be >= 1");
+			}
+			if (lifetimeYears < 0) {
+				throw new IdSourceException("Lifetime must be >= 0");
+			}
+		}
+
+		/**
+		 * Instantiates new Requirements with the burst rate per second.
+		 *
+		 * @param sustainedPerSec sustained IDs per second per host
+		 * @param burstPerSec     burst IDs per second per host
+		 * @param hosts           number of hosts
+		 * @param lifetimeYears   years the layout must last from now
+		 */
+		public Requirements(long sustainedPerSec, long burstPerSec, int hosts, int lifetimeYears) {
+			this(sustainedPerSec, burstPerSec, 1000, hosts, lifetimeYears);
+		}
+	}
+
+	/**
+	 * The Layout.
+	 *
+	 * @param kind                    the kind
+	 * @param idPositions             decimal digits or bits of the current id
+	 * @param hostPositions           decimal digits or bits of the host id
+	 * @param timestampExtraBits      extra time stamp bits of a binary layout, 0 for decimal
+	 * @param maxIdPerSec             max IDs per second per host
+	 * @param maxIdPerMSec            max IDs per millisecond per host
+	 * @param maxHosts                number of distinct host ids
+	 * @param identityExhaustion      last second the time stamp fits, with TimeTransformer.identity
+	 * @param adjustedEpochExhaustion last second the time stamp fits, with TimeTransformer.adjustedEpoch
+	 * @param adjustedEpoch           whether the layout uses TimeTransformer.adjustedEpoch: always for binary, for decimal when identity falls short of the lifetime
+	 * @param violations              unmet requirements, empty if the layout satisfies all of them
+	 */
+	public record Layout(Kind kind, int idPositions, int hostPositions, int timestampExtraBits,
+						 long maxIdPerSec, long maxIdPerMSec, long maxHosts,
+						 Instant identityExhaustion, Instant adjustedEpochExhaustion,
+						 boolean adjustedEpoch, List<String> violations) {
+
+		/**
+		 * Whether the layout satisfies all requirements.
+		 *
+		 * @return the boolean
+		 */
+		public boolean satisfies() {
+			return violations.isEmpty();
+		}
+
+		/**
+		 * Exhaustion date with the time transformer the layout uses.
+		 *
+		 * @return the instant
+		 */
+		public Instant exhaustion() {
+			return adjustedEpoch ? adjustedEpochExhaustion : identityExhaustion;
+		}
+
+		/**
+		 * Builds the generator of this layout.
+		 *
+		 * @param hostId the host id
+		 * @return the abstract id generator
+		 */
+		public AbstractIdGenerator build(int hostId) {
+			AbstractIdGenerator idGenerator = switch (kind) {
+				case DECIMAL -> new DecimalIdGenerator(hostId, unixTimestamp(), idPositions, hostPositions);
+				case BINARY -> new BinaryIdGenerator(unixTimestamp(), (short) timestampExtraBits, hostId, hostPositions);
+			};
+			idGenerator.setTimeTransformer(adjustedEpoch ? TimeTransformer.adjustedEpoch : TimeTransformer.identity);
+			return idGenerator;
+		}
+
+		@Override
+		public String toString() {
+			String name = kind == Kind.DECIMAL
+					? "decimal idPos=" + idPositions + " hostIdPos=" + hostPositions
+					: "binary hostIdBits=" + hostPositions + " timestampExtraBits=" + timestampExtraBits + " idBits=" + idPositions;
+			return name +
+					", maxIdPerSec=" + maxIdPerSec +
+					", maxIdPerMSec=" + maxIdPerMSec +
+					", maxHosts=" + maxHosts +
+					", exhaustion identity=" + identityExhaustion.atZone(ZoneOffset.UTC).toLocalDate() +
+					" adjustedEpoch=" + adjustedEpochExhaustion.atZone(ZoneOffset.UTC).toLocalDate() +
+					(adjustedEpoch ? ", uses adjustedEpoch" : ", uses identity") +
+					(violations.isEmpty() ? "" : ", violates " + violations);
+		}
+	}
+
+	/**
+	 * The Plan. Layouts satisfying the requirements come first, best first.
+	 *
+	 * @param requirements the requirements
+	 * @param layouts      the layouts
+	 */
+	public record Plan(Requirements requirements, List<Layout> layouts) {
+
+		/**
+		 * Recommended layout.
+		 *
+		 * @return the best layout satisfying the requirements
+		 */
+		public Optional<Layout> recommended() {
+			return layouts.stream().filter(Layout::satisfies).findFirst();
+		}
+
+		/**
+		 * Recommended layout of the kind.
+		 *
+		 * @param kind the kind
+		 * @return the best layout of the kind satisfying the requirements
+		 */
+		public Optional<Layout> recommended(Kind kind) {
+			return layouts.stream().filter(l -> l.kind() == kind && l.satisfies()).findFirst();
+		}
+	}
+
+	private static final long SECONDS_PER_YEAR = 31_556_952L;
+
+	private LayoutPlanner() {
+	}
+
+	/**
+	 * Plans layouts for the requirements, counting the lifetime from now.
+	 *
+	 * @param requirements the requirements
+	 * @return the plan
+	 */
+	public static Plan plan(Requirements requirements) {
+		return plan(requirements, Instant.now());
+	}
+
+	/**
+	 * Plans layouts for the requirements.
+	 *
+	 * @param requirements the requirements
+	 * @param now          start of the lifetime
+	 * @return the plan
+	 */
+	public static Plan plan(Requirements requirements, Instant now) {
+		long requiredSec = now.getEpochSecond() + requirements.lifetimeYears() * SECONDS_PER_YEAR;
+		List<Layout> layouts = new ArrayList<>();
+		// current id needs at least one ID per millisecond; pow10Sticky and pow2Sticky stay exact up to 10^9 and 2^30
+		for (int idPos = 3; idPos <= 9; idPos++) {
+			for (int hostPos = 0; idPos + hostPos <= 11 && hostPos <= 9; hostPos++) {
+				long base = pow(10, idPos + hostPos);
+				long maxTimestamp = (Long.MAX_VALUE - (base - 1)) / base;
+				long maxHosts = hostPos == 0 ? 1 : pow(10, hostPos) - 1;
+				layouts.add(layout(Kind.DECIMAL, idPos, hostPos, 0, pow(10, idPos), maxHosts, maxTimestamp, false, requirements, requiredSec));
+			}
+		}
+		for (int hostBits = 0; hostBits <= 22; hostBits++) {
+			for (int extraBits = 0; 32 - extraBits - hostBits >= 10; extraBits++) {
+				int idBits = 32 - extraBits - hostBits;
+				if (idBits > 30) {
+					continue;
+				}
+				long maxTimestamp = (1L << (31 + extraBits)) - 1;
+				layouts.add(layout(Kind.BINARY, idBits, hostBits, extraBits, 1L << idBits, 1L << hostBits, maxTimestamp, true, requirements, requiredSec));
+			}
+		}
+		layouts.sort(Comparator.comparing((Layout l) -> !l.satisfies())
+				.thenComparing(Comparator.comparingLong(Layout::maxIdPerMSec).reversed())
+				.thenComparing(Comparator.comparing(Layout::exhaustion).reversed())
+				.thenComparing(Layout::kind));
+		return new Plan(requirements, List.copyOf(layouts));
+	}
+
+	private static Layout layout(Kind kind, int idPositions, int hostPositions, int extraBits, long idCeil, long maxHosts,
+								 long maxTimestamp, boolean adjustedByDefault, Requirements requirements, long requiredSec) {
+		long maxIdPerMSec = idCeil / 1000;
+		long maxIdPerSec = Math.min(idCeil - 1, 999 * maxIdPerMSec) + 1;
+		long identityEnd = maxTimestamp;
+		long adjustedEnd = maxTimestamp + TimeTransformer.adjustingEpochTimestamp;
+		// adjustedEpoch always lasts longer; decimal layouts switch to it only when identity falls short
+		boolean adjustedEpoch = adjustedByDefault || identityEnd < requiredSec;
+		List<String> violations = new ArrayList<>();
+		if (maxIdPerSec < requirements.sustainedPerSec()) {
+			violations.add("sustained rate");
+		}
+		// generators pace their capacity at maxIdPerMSec per millisecond, so a burst is served without throttling
+		// only if its share of every millisecond of the window fits that budget
+		if (Math.ceilDiv(requirements.burstPerSec(), requirements.burstWindowMSec()) > maxIdPerMSec) {
+			violations.add("burst rate");
+		}
+		if (maxHosts < requirements.hosts()) {
+			violations.add("hosts");
+		}
+		if (Math.max(identityEnd, adjustedEnd) < requiredSec) {
+			violations.add("lifetime");
+		}
+		return new Layout(kind, idPositions, hostPositions, extraBits, maxIdPerSec, maxIdPerMSec, maxHosts,
+				Instant.ofEpochSecond(identityEnd), Instant.ofEpochSecond(adjustedEnd), adjustedEpoch, List.copyOf(violations));
+	}
+
+	private static long pow(long base, int exp) {
+		long result = 1;
+		for (int i = 0; i < exp; i++) {
+			result = Math.multiplyExact(result, base);
+		}
+		return result;
+	}
+
+	/**
+	 * Prints the plan for command line requirements.
+	 *
+	 * @param args --sustained ids/sec --burst ids [--burstWindow ms] --hosts n --years n [--kind decimal|binary] [--all]
+	 */
+	public static void main(String[] args) {
+		Map<String, String> options = new HashMap<>();
+		for (int i = 0; i < args.length; i++) {
+			if (!args[i].startsWith("--")) {
+				throw new IdSourceException("Unexpected argument " + args[i]);
+			}
+			String key = args[i].substring(2);
+			boolean flag = i + 1 >= args.length || args[i + 1].startsWith("--");
+			options.put(key, flag ? "true" : args[++i]);
+		}
+		long sustained = Long.parseLong(options.getOrDefault("sustained", "1000"));
+		var requirements = new Requirements(
+				sustained,
+				Long.parseLong(options.getOrDefault("burst", String.valueOf(sustained))),
+				Integer.parseInt(options.getOrDefault("burstWindow", "1000")),
+				Integer.parseInt(options.getOrDefault("hosts", "1")),
+				Integer.parseInt(options.getOrDefault("years", "10")));
+		Kind kind = options.containsKey("kind") ? Kind.valueOf(options.get("kind").toUpperCase()) : null;
+		var plan = plan(requirements);
+		System.out.println(requirements);
+		for (Layout layout : plan.layouts()) {
+			if ((kind == null || layout.kind() == kind) && (layout.satisfies() || options.containsKey("all"))) {
+				System.out.println("  " + layout);
+			}
+		}
+		var recommended = kind == null ? plan.recommended() : plan.recommended(kind);
+		System.out.println("Recommended: " + recommended.map(Layout::toString).orElse("none, requirements can not be met"));
+	}
+
+}
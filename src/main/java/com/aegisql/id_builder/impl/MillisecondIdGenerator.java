@@ -0,0 +1,181 @@
+package com.aegisql.id_builder.impl;
+
+import com.aegisql.id_builder.IdParts;
+import com.aegisql.id_builder.IdSourceException;
+import com.aegisql.id_builder.TimeTransformer;
+import com.aegisql.id_builder.utils.Utils;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.aegisql.id_builder.utils.Utils.*;
+
+/**
+ * The type Millisecond id generator.
+ * Binary layout with milliseconds in the timestamp field and a per-millisecond sequence:
+ * <pre>
+ * 0 | milliseconds since the adjusted epoch | sequence | host id
+ * </pre>
+ * Every millisecond gets the whole sequence range at once, so throughput is smoothed at 1 ms granularity
+ * and a burst at the start of a second never waits for the second to fill in.
+ * With the default 12 sequence bits and no host bits the timestamp field is 51 bits wide;
+ * with 10 host bits it is 41 bits, which lasts about 69 years. The constructor fails if the field
+ * does not last {@value AbstractIdGenerator#MIN_LIFETIME_YEARS} years from the start time.
+ */
+public final class MillisecondIdGenerator extends AbstractIdGenerator {
+
+	/**
+	 * The default sequence bits: 4096 IDs per millisecond.
+	 */
+	public static final int DEFAULT_SEQUENCE_BITS = 12;
+
+	private final long hostId;
+	private final short timestampShift;
+	private final short idShift;
+	private final long sequenceMask;
+	private final long hostIdMask;
+
+	/**
+	 * Instantiates a new Millisecond id generator.
+	 *
+	 * @param startTimeStampMs the start time stamp ms
+	 * @param hostId           the host id
+	 * @param hostIdBits       the host id bits
+	 * @param sequenceBits     the sequence bits
+	 */
+	public MillisecondIdGenerator(long startTimeStampMs, int hostId, int hostIdBits, int sequenceBits) {
+		super(Utils::pow2Sticky, hostIdBits, sequenceBits, startTimeStampMs, TimeUnit.MILLISECONDS);
+		assertPositive(sequenceBits, "Sequence bits must be >= 1, got %d");
+		assertNotNegative(hostIdBits, "Host ID bits must be >= 0, got %d");
+		if (hostIdBits + sequenceBits > 31) {
+			throw new IdSourceException("Host ID bits + sequence bits must be <= 31, got " + (hostIdBits + sequenceBits));
+		}
+		if (hostId < 0 || hostId > maxHostId) {
+			throw new IdSourceException("Host ID must be in range 0.." + maxHostId);
+		}
+		this.timestampShift = (short) (hostIdBits + sequenceBits);
+		this.idShift = (short) hostIdBits;
+		this.sequenceMask = (1L << sequenceBits) - 1;
+		this.hostIdMask = (1L << hostIdBits) - 1;
+		this.hostId = hostId;
+		this.tf = TimeTransformer.adjustedEpoch;
+		long timestampBits = 63 - timestampShift;
+		if (adjustedMillis(startTimeStampMs + TimeUnit.DAYS.toMillis(365 * MIN_LIFETIME_YEARS)) >>> timestampBits != 0) {
+			throw new IdSourceException(timestampBits + " timestamp bits do not last " + MIN_LIFETIME_YEARS + " years");
+		}
+	}
+
+	/**
+	 * Instantiates a new Millisecond id generator.
+	 *
+	 * @param hostId     the host id
+	 * @param hostIdBits the host id bits
+	 */
+	public MillisecondIdGenerator(int hostId, int hostIdBits) {
+		this(System.currentTimeMillis(), hostId, hostIdBits, DEFAULT_SEQUENCE_BITS);
+	}
+
+	/**
+	 * Instantiates a new Millisecond id generator.
+	 */
+	public MillisecondIdGenerator() {
+		this(0, 0);
+	}
+
+	private long adjustedMillis(long timeStampMs) {
+		long seconds = Math.floorDiv(timeStampMs, 1000);
+		return tf.transformTimestamp(seconds) * 1000 + (timeStampMs - seconds * 1000);
+	}
+
+	long buildId(long timeStampMs, long currentId) {
+		assert currentId <= maxId : "current ID exceeded max id";
+		long shiftedTime = adjustedMillis(timeStampMs) << timestampShift;
+		long shiftedId = currentId << idShift;
+		long id = shiftedTime | shiftedId | this.hostId;
+		assert id > 0 : "ID sign bit is set.";
+		return id;
+	}
+
+	@Override
+	public IdParts parse(long id) {
+		return new IdParts(timestampOf(id), hostIdOf(id), counterOf(id), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Timestamp of the ID in milliseconds.
+	 *
+	 * @param id the id
+	 * @return the timestamp ms
+	 */
+	@Override
+	public long timestampOf(long id) {
+		return (id >>> timestampShift) + parsedTimestampOffset() * 1000;
+	}
+
+	@Override
+	public int hostIdOf(long id) {
+		int hostId = (int) (id & hostIdMask);
+		return hostId > maxHostId ? -1 : hostId;
+	}
+
+	@Override
+	public long counterOf(long id) {
+		return (id >>> idShift) & sequenceMask;
+	}
+
+	@Override
+	void parse(long[] ids, int offset, int length, long[] timestamps, int[] hostIds, long[] currentIds, int outOffset) {
+		final int tsShift = timestampShift;
+		if (timestamps != null) {
+			final long restore = parsedTimestampOffset() * 1000;
+			for (int i = 0; i < length; i++) {
+				timestamps[outOffset + i] = (ids[offset + i] >>> tsShift) + restore;
+			}
+		}
+		if (hostIds != null) {
+			final long hostMask = hostIdMask;
+			final long hostLimit = maxHostId;
+			for (int i = 0; i < length; i++) {
+				int hostId = (int) (ids[offset + i] & hostMask);
+				hostIds[outOffset + i] = hostId > hostLimit ? -1 : hostId;
+			}
+		}
+		if (currentIds != null) {
+			final int hostIdBits = idShift;
+			final long seqMask = sequenceMask;
+			for (int i = 0; i < length; i++) {
+				currentIds[outOffset + i] = (ids[offset + i] >>> hostIdBits) & seqMask;
+			}
+		}
+	}
+
+	/**
+	 * Restores the generator from the last ID it produced before restart.
+	 *
+	 * @param lastId       the last id
+	 * @param hostIdBits   the host id bits
+	 * @param sequenceBits the sequence bits
+	 * @return the millisecond id generator
+	 */
+	public static MillisecondIdGenerator fromLastKnownId(long lastId, int hostIdBits, int sequenceBits) {
+		var tmpIdGenerator = new MillisecondIdGenerator(System.currentTimeMillis(), 0, hostIdBits, sequenceBits);
+		var parts = tmpIdGenerator.parse(lastId);
+		var idGenerator = new MillisecondIdGenerator(parts.timestamp(), parts.hostId(), hostIdBits, sequenceBits);
+		idGenerator.resetState(parts.timestamp(), parts.currentId());
+		return idGenerator;
+	}
+
+	@Override
+	public long getHostId() {
+		return hostId;
+	}
+
+	@Override
+	public String toString() {
+		return "MillisecondIdGenerator{" +
+				"hostId=" + hostId +
+				", maxHostId=" + maxHostId +
+				", maxIdsPerMSec=" + maxIdPerMSec +
+				", pastShiftSlowTimeAfter=" + sleepAfter +
+				'}';
+	}
+}
@@ -0,0 +1,200 @@
+package com.aegisql.id_builder.impl;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.function.LongSupplier;
+
+/**
+ * The type Nano clock.
+ * Wall clock with nanosecond resolution: the wall clock is read once, at the anchor, and the time
+ * is then derived from System.nanoTime() elapsed since the anchor. Reading it costs one nanoTime() call.
+ * <p>
+ * The clock is re-anchored by the first reader that finds the anchor older than the period.
+ * Two modes are available:
+ * <ul>
+ * <li>anchored - a wall clock ahead of the derived time moves the time forward at once. A wall clock
+ * behind it never moves the time backwards: the derived time is held at the value it had at the anchor
+ * until the wall clock catches up.</li>
+ * <li>slewing - a wall clock ahead of the derived time moves the time forward at once, as in anchored mode.
+ * A wall clock behind it is met by running slower than nanoTime(), by at most maxSlewPpm parts per million.
+ * A wall clock stepped back by NTP is absorbed without the time ever going backwards or standing still,
+ * so generators keep a flat throughput; the difference is reported by {@link #getDriftNanos()}
+ * while it is being slewed away.</li>
+ * </ul>
+ * Readers racing with a re-anchoring may see the time move back by the duration of the race;
+ * generators never move their state backwards, so IDs stay ordered.
+ * Use it with {@link SubMillisecondIdGenerator}, or as a millisecond timestamp supplier of any generator.
+ */
+public final class NanoClock implements LongSupplier {
+
+	/**
+	 * The default max slew: 500 ppm, the limit of NTP slewing. A one second step is absorbed in about 33 minutes.
+	 */
+	public static final long DEFAULT_MAX_SLEW_PPM = 500;
+
+	private record Anchor(long wallNanos, long nanoTime, long floorNanos, long ratePpm, long expiresNanos) {
+
+		private long nanos(long t) {
+			long elapsed = t - nanoTime;
+			long slew = elapsed / 1_000_000 * ratePpm + elapsed % 1_000_000 * ratePpm / 1_000_000;
+			return Math.max(floorNanos, wallNanos + elapsed + slew);
+		}
+	}
+
+	private final Clock wallClock;
+	private final LongSupplier nanoTime;
+	private final long periodNanos;
+	private final long maxSlewPpm;
+	private volatile Anchor anchor;
+
+	NanoClock(Clock wallClock, LongSupplier nanoTime, long periodMillis, long maxSlewPpm) {
+		if (periodMillis < 1) {
+			throw new IllegalArgumentException("Re-anchoring period must be >= 1 millisecond");
+		}
+		if (maxSlewPpm < 0 || maxSlewPpm > 100_000) {
+			throw new IllegalArgumentException("Max slew must be in range 0..100000 ppm");
+		}
+		this.wallClock = wallClock;
+		this.nanoTime = nanoTime;
+		this.periodNanos = periodMillis * 1_000_000;
+		this.maxSlewPpm = maxSlewPpm;
+		long t = nanoTime.getAsLong();
+		long wall = wallNanos();
+		this.anchor = new Anchor(wall, t, wall, 0, t + periodNanos);
+	}
+
+	/**
+	 * Clock anchored on the system clock and re-anchored every period.
+	 *
+	 * @param periodMillis the re-anchoring period in milliseconds
+	 * @return the nano clock
+	 */
+	public static NanoClock anchored(long periodMillis) {
+		return new NanoClock(Clock.systemUTC(), System::nanoTime, periodMillis, 0);
+	}
+
+	/**
+	 * Clock anchored on the system clock and re-anchored every second.
+	 *
+	 * @return the nano clock
+	 */
+	public static NanoClock anchored() {
+		return anchored(1000);
+	}
+
+	/**
+	 * Clock slewing back toward the system clock, never stepping back, re-checked every period.
+	 *
+	 * @param periodMillis the re-anchoring period in milliseconds
+	 * @param maxSlewPpm   max rate correction in parts per million, 1..100000
+	 * @return the nano clock
+	 */
+	public static NanoClock slewing(long periodMillis, long maxSlewPpm) {
+		if (maxSlewPpm < 1) {
+			throw new IllegalArgumentException("Max slew must be >= 1 ppm");
+		}
+		return new NanoClock(Clock.systemUTC(), System::nanoTime, periodMillis, maxSlewPpm);
+	}
+
+	/**
+	 * Clock slewing back toward the system clock by at most DEFAULT_MAX_SLEW_PPM, re-checked every second.
+	 *
+	 * @return the nano clock
+	 */
+	public static NanoClock slewing() {
+		return slewing(1000, DEFAULT_MAX_SLEW_PPM);
+	}
+
+	private long wallNanos() {
+		Instant now = wallClock.instant();
+		return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+	}
+
+	private Anchor reanchor(Anchor a, long t) {
+		long derived = a.nanos(t);
+		long wall = wallNanos();
+		Anchor next;
+		if (maxSlewPpm == 0) {
+			next = new Anchor(wall, t, derived, 0, t + periodNanos);
+		} else if (wall >= derived) {
+			// a wall clock ahead, e.g. after a suspend nanoTime did not count, is followed at once
+			next = new Anchor(wall, t, wall, 0, t + periodNanos);
+		} else {
+			// slow down to meet the wall clock by the end of the period, within the max slew
+			long drift = wall - derived;
+			long ratePpm = -drift >= periodNanos ? -maxSlewPpm : Math.max(-maxSlewPpm, drift * 1_000_000 / periodNanos);
+			next = new Anchor(derived, t, derived, ratePpm, t + periodNanos);
+		}
+		anchor = next;
+		return next;
+	}
+
+	/**
+	 * Current time in nanoseconds since the epoch.
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long nanos() {
+		long t = nanoTime.getAsLong();
+		Anchor a = anchor;
+		if (t - a.expiresNanos() >= 0) {
+			a = reanchor(a, t);
+		}
+		return a.nanos(t);
+	}
+
+	/**
+	 * Current time in milliseconds since the epoch.
+	 *
+	 * @return the time in milliseconds
+	 */
+	@Override
+	public long getAsLong() {
+		return nanos() / 1_000_000;
+	}
+
+	/**
+	 * Current drift: how far the wall clock is ahead of this clock, negative if it is behind.
+	 * Reads the wall clock.
+	 *
+	 * @return the drift in nanoseconds
+	 */
+	public long getDriftNanos() {
+		return wallNanos() - nanos();
+	}
+
+	/**
+	 * Is slewing mode.
+	 *
+	 * @return true if the clock slews instead of holding
+	 */
+	public boolean isSlewing() {
+		return maxSlewPpm > 0;
+	}
+
+	/**
+	 * Gets max slew in parts per million, 0 for anchored clocks.
+	 *
+	 * @return the max slew ppm
+	 */
+	public long getMaxSlewPpm() {
+		return maxSlewPpm;
+	}
+
+	/**
+	 * Gets re-anchoring period in milliseconds.
+	 *
+	 * @return the period
+	 */
+	public long getPeriodMillis() {
+		return periodNanos / 1_000_000;
+	}
+
+	@Override
+	public String toString() {
+		return "NanoClock{" +
+				"periodMillis=" + getPeriodMillis() +
+				", mode=" + (isSlewing() ? "slewing:" + maxSlewPpm + "ppm" : "anchored") +
+				'}';
+	}
+}
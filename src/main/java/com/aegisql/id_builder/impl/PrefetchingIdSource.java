@@ -0,0 +1,253 @@
+package com.aegisql.id_builder.impl;
+
+import com.aegisql.id_builder.IdRange;
+import com.aegisql.id_builder.IdSource;
+import com.aegisql.id_builder.IdSourceException;
+import com.aegisql.id_builder.utils.PaddedAtomicLong;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.aegisql.id_builder.utils.Utils.assertPositive;
+
+/**
+ * The type Prefetching id source.
+ * A producer thread pre-generates IDs into a bounded single-producer/multi-consumer ring,
+ * so that getId() is a single lock-free dequeue.
+ * <p>
+ * The producer tops the ring up to its capacity each time the number of ready IDs drops below the
+ * low-water mark. When the ring is empty, getId() falls back to the generator itself.
+ * Optionally, IDs that waited in the ring longer than maxAgeMSec are discarded by the producer,
+ * which drops the whole stale prefix of the ring at once, so the timestamp embedded into a returned ID
+ * stays accurate. getId() never returns a stale ID; it falls back to the generator until the producer drops it.
+ * All IDs are unique, but prefetched and directly generated IDs are not ordered between themselves.
+ */
+public final class PrefetchingIdSource implements IdSource, AutoCloseable {
+
+	private static final long PRODUCER_PARK_NANOS = 100_000_000;
+
+	private final AbstractIdGenerator idGenerator;
+	private final int capacity;
+	private final int mask;
+	private final int lowWaterMark;
+	private final long maxAgeMSec;
+	private final AtomicLongArray ids;
+	private final AtomicLongArray times;
+	private final PaddedAtomicLong head = new PaddedAtomicLong(0);
+	private final PaddedAtomicLong tail = new PaddedAtomicLong(0);
+	private final AtomicBoolean producerParked = new AtomicBoolean();
+	private final LongAdder fallbacks = new LongAdder();
+	private final LongAdder discarded = new LongAdder();
+	private final Thread producer;
+	private volatile boolean running = true;
+
+	/**
+	 * Instantiates a new Prefetching id source.
+	 *
+	 * @param idGenerator   the id generator
+	 * @param capacity      the ring capacity, rounded up to a power of 2
+	 * @param lowWaterMark  the producer refills the ring when fewer IDs are ready
+	 * @param maxAgeMSec    max time an ID may wait in the ring, 0 to never discard IDs
+	 * @param threadFactory factory of the producer thread, platform or virtual
+	 */
+	public PrefetchingIdSource(AbstractIdGenerator idGenerator, int capacity, int lowWaterMark, long maxAgeMSec, ThreadFactory threadFactory) {
+		this.idGenerator = Objects.requireNonNull(idGenerator, "Expected ID generator");
+		Objects.requireNonNull(threadFactory, "Expected thread factory");
+		assertPositive(capacity, "Capacity must be >= 1");
+		assertPositive(lowWaterMark, "Low water mark must be >= 1");
+		if (lowWaterMark > capacity) {
+			throw new IdSourceException("Low water mark must not exceed capacity " + capacity);
+		}
+		if (maxAgeMSec < 0) {
+			throw new IdSourceException("Max age must be >= 0");
+		}
+		this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = this.capacity - 1;
+		this.lowWaterMark = lowWaterMark;
+		this.maxAgeMSec = maxAgeMSec;
+		this.ids = new AtomicLongArray(this.capacity);
+		this.times = new AtomicLongArray(this.capacity);
+		this.producer = threadFactory.newThread(this::produce);
+		this.producer.start();
+	}
+
+	/**
+	 * Instantiates a new Prefetching id source with a virtual producer thread,
+	 * refilling at half of the capacity and never discarding IDs.
+	 *
+	 * @param idGenerator the id generator
+	 * @param capacity    the ring capacity
+	 */
+	public PrefetchingIdSource(AbstractIdGenerator idGenerator, int capacity) {
+		this(idGenerator, capacity, Math.max(1, capacity / 2), 0, Thread.ofVirtual().name("id-builder-prefetch").factory());
+	}
+
+	@Override
+	public long getId() {
+		while (true) {
+			long h = head.get();
+			long t = tail.get();
+			if (h >= t) {
+				fallbacks.increment();
+				return idGenerator.getId();
+			}
+			int slot = (int) h & mask;
+			long id = ids.getAcquire(slot);
+			if (maxAgeMSec > 0 && isStale(times.getAcquire(slot), System.currentTimeMillis())) {
+				wakeUpProducer();
+				fallbacks.increment();
+				return idGenerator.getId();
+			}
+			if (head.compareAndSet(h, h + 1)) {
+				if (t - h - 1 < lowWaterMark) {
+					wakeUpProducer();
+				}
+				return id;
+			}
+		}
+	}
+
+	/**
+	 * Reserves IDs directly from the generator, bypassing the ring.
+	 *
+	 * @param n number of IDs to reserve
+	 * @return the id range
+	 */
+	@Override
+	public IdRange reserve(int n) {
+		return idGenerator.reserve(n);
+	}
+
+	private void produce() {
+		while (running) {
+			long parkNanos = PRODUCER_PARK_NANOS;
+			if (maxAgeMSec > 0) {
+				parkNanos = Math.min(parkNanos, dropStale());
+			}
+			long t = tail.get();
+			int ready = (int) (t - head.get());
+			if (ready < lowWaterMark) {
+				var range = idGenerator.reserveAvailable(capacity - ready);
+				long now = System.currentTimeMillis();
+				int size = range.size();
+				var it = range.iterator();
+				for (int i = 0; i < size; i++) {
+					int slot = (int) (t + i) & mask;
+					ids.setRelease(slot, it.nextLong());
+					times.setRelease(slot, now);
+				}
+				tail.setRelease(t + size);
+			} else {
+				producerParked.set(true);
+				if (running && tail.get() - head.get() >= lowWaterMark) {
+					LockSupport.parkNanos(this, parkNanos);
+				}
+				producerParked.set(false);
+			}
+		}
+	}
+
+	private boolean isStale(long time, long now) {
+		return now - time > maxAgeMSec;
+	}
+
+	/**
+	 * Moves head past the IDs older than max age. Slots are filled in time order,
+	 * so the stale IDs are a prefix of the ring.
+	 *
+	 * @return nanoseconds until the oldest remaining ID becomes stale
+	 */
+	private long dropStale() {
+		while (true) {
+			long now = System.currentTimeMillis();
+			long h = head.get();
+			long t = tail.get();
+			long fresh = h;
+			while (fresh < t && isStale(times.getAcquire((int) fresh & mask), now)) {
+				fresh++;
+			}
+			if (fresh == h) {
+				return fresh < t
+						? TimeUnit.MILLISECONDS.toNanos(times.getAcquire((int) fresh & mask) + maxAgeMSec + 1 - now)
+						: PRODUCER_PARK_NANOS;
+			}
+			if (head.compareAndSet(h, fresh)) {
+				discarded.add(fresh - h);
+			}
+		}
+	}
+	private void wakeUpProducer() {
+		if (producerParked.compareAndSet(true, false)) {
+			LockSupport.unpark(producer);
+		}
+	}
+
+	/**
+	 * Number of IDs ready in the ring.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return (int) Math.max(0, tail.get() - head.get());
+	}
+
+	/**
+	 * Gets capacity.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Number of getId() calls served directly by the generator because the ring was empty.
+	 *
+	 * @return the fallbacks
+	 */
+	public long getFallbacks() {
+		return fallbacks.sum();
+	}
+
+	/**
+	 * Number of IDs discarded as older than max age.
+	 *
+	 * @return the discarded
+	 */
+	public long getDiscarded() {
+		return discarded.sum();
+	}
+
+	/**
+	 * Gets id generator.
+	 *
+	 * @return the id generator
+	 */
+	public AbstractIdGenerator getIdGenerator() {
+		return idGenerator;
+	}
+
+	/**
+	 * Stops the producer. Remaining IDs are still served, then all calls fall back to the generator.
+	 */
+	@Override
+	public void close() {
+		running = false;
+		LockSupport.unpark(producer);
+	}
+
+	@Override
+	public String toString() {
+		return "PrefetchingIdSource{" +
+				"capacity=" + capacity +
+				", lowWaterMark=" + lowWaterMark +
+				", maxAgeMSec=" + maxAgeMSec +
+				", idGenerator=" + idGenerator +
+				'}';
+	}
+}
@@ -0,0 +1,34 @@
+package com.aegisql.id_builder.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timestamp;
+
+/**
+ * The type Saturation event.
+ * A claim found the budget of the current second exhausted up to the current millisecond.
+ */
+@Name("com.aegisql.id_builder.Saturation")
+@Label("ID Saturation")
+@Category("ID Builder")
+@Description("ID generator used up the budget of the current millisecond")
+@StackTrace(false)
+final class SaturationEvent extends jdk.jfr.Event {
+
+	@Label("Layout")
+	String layout;
+
+	@Label("Host ID")
+	long hostId;
+
+	@Label("Time Stamp")
+	@Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+	long timeStamp;
+
+	@Label("Current ID")
+	long currentId;
+
+}
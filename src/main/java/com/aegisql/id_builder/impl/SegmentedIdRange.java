@@ -0,0 +1,137 @@
+package com.aegisql.id_builder.impl;
+
+import com.aegisql.id_builder.IdRange;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+
+/**
+ * The type Segmented id range.
+ * IDs reserved by a generator form arithmetic progressions, one per second of the reservation,
+ * so the range keeps only first id, step and count of each segment and computes IDs on demand.
+ */
+public final class SegmentedIdRange implements IdRange {
+
+	/**
+	 * The Segment. Consecutive IDs sharing the same time stamp.
+	 *
+	 * @param timeStampSec the time stamp of all IDs in the segment, in ticks of the generator: seconds, milliseconds or microsecond ticks
+	 * @param firstId      the first id
+	 * @param step         difference between two consecutive IDs
+	 * @param count        the count
+	 */
+	public record Segment(long timeStampSec, long firstId, long step, int count) {
+
+		/**
+		 * Gets the id at the given position.
+		 *
+		 * @param index the index
+		 * @return the long
+		 */
+		public long get(int index) {
+			return firstId + index * step;
+		}
+
+		/**
+		 * Last id long.
+		 *
+		 * @return the long
+		 */
+		public long lastId() {
+			return get(count - 1);
+		}
+	}
+
+	private final Segment[] segments;
+	private final int size;
+
+	/**
+	 * Instantiates a new Segmented id range.
+	 *
+	 * @param segments the segments
+	 */
+	public SegmentedIdRange(List<Segment> segments) {
+		Objects.requireNonNull(segments, "Expected segments");
+		this.segments = segments.toArray(new Segment[0]);
+		int total = 0;
+		for (Segment segment : this.segments) {
+			total = Math.addExact(total, segment.count());
+		}
+		this.size = total;
+	}
+
+	/**
+	 * Gets segments.
+	 *
+	 * @return the segments
+	 */
+	public List<Segment> getSegments() {
+		return List.of(segments);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public long get(int index) {
+		Objects.checkIndex(index, size);
+		for (Segment segment : segments) {
+			if (index < segment.count()) {
+				return segment.get(index);
+			}
+			index -= segment.count();
+		}
+		throw new IndexOutOfBoundsException(index);
+	}
+
+	@Override
+	public void copyTo(long[] dst, int offset) {
+		Objects.checkFromIndexSize(offset, size, dst.length);
+		int pos = offset;
+		for (Segment segment : segments) {
+			long id = segment.firstId();
+			long step = segment.step();
+			for (int i = 0; i < segment.count(); i++) {
+				dst[pos++] = id;
+				id += step;
+			}
+		}
+	}
+
+	@Override
+	public PrimitiveIterator.OfLong iterator() {
+		return new PrimitiveIterator.OfLong() {
+			private int segment = 0;
+			private int pos = 0;
+
+			@Override
+			public long nextLong() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return segments[segment].get(pos++);
+			}
+
+			@Override
+			public boolean hasNext() {
+				while (segment < segments.length && pos >= segments[segment].count()) {
+					segment++;
+					pos = 0;
+				}
+				return segment < segments.length;
+			}
+		};
+	}
+
+	@Override
+	public String toString() {
+		return "SegmentedIdRange{" +
+				"size=" + size +
+				", segments=" + List.of(segments) +
+				'}';
+	}
+}
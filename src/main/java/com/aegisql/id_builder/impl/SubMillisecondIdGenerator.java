@@ -0,0 +1,253 @@
+package com.aegisql.id_builder.impl;
+
+import com.aegisql.id_builder.IdParts;
+import com.aegisql.id_builder.IdSourceException;
+import com.aegisql.id_builder.TimeTransformer;
+import com.aegisql.id_builder.utils.Divisor;
+import com.aegisql.id_builder.utils.Utils;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static com.aegisql.id_builder.utils.Utils.*;
+
+/**
+ * The type Sub millisecond id generator.
+ * Binary layout with ticks of a few microseconds in the timestamp field and a per-tick sequence:
+ * <pre>
+ * 0 | ticks since the adjusted epoch | sequence | host id
+ * </pre>
+ * Time is read from a {@link NanoClock}, wall clock anchored once and advanced by System.nanoTime(),
+ * so the time in an ID is accurate to the tick rather than to the millisecond. The timestamp supplier
+ * of the generator is not used; pass a {@link NanoClock#slewing()} clock to ride through wall clock steps.
+ * The timestamp field is 63 - hostIdBits - sequenceBits wide; with 10 microsecond ticks and 8 sequence
+ * and 6 host bits it lasts about 178 years. The constructor fails if the field does not last
+ * {@value AbstractIdGenerator#MIN_LIFETIME_YEARS} years from the current time.
+ * parse() returns timestamps in microseconds.
+ */
+public final class SubMillisecondIdGenerator extends AbstractIdGenerator {
+
+	/**
+	 * The default tick: 10 microseconds.
+	 */
+	public static final long DEFAULT_TICK_MICROS = 10;
+	/**
+	 * The default sequence bits: 256 IDs per tick.
+	 */
+	public static final int DEFAULT_SEQUENCE_BITS = 8;
+
+	private final NanoClock clock;
+	private final Divisor tickDivisor;
+	private final long tickMicros;
+	private final long ticksPerSec;
+	private final long hostId;
+	private final short timestampShift;
+	private final short idShift;
+	private final long sequenceMask;
+	private final long hostIdMask;
+
+	/**
+	 * Instantiates a new Sub millisecond id generator.
+	 *
+	 * @param clock        the clock
+	 * @param tickMicros   the tick in microseconds, a divisor of 1000
+	 * @param hostId       the host id
+	 * @param hostIdBits   the host id bits
+	 * @param sequenceBits the sequence bits
+	 */
+	public SubMillisecondIdGenerator(NanoClock clock, long tickMicros, int hostId, int hostIdBits, int sequenceBits) {
+		this(clock, currentTick(clock, tickMicros), tickMicros, hostId, hostIdBits, sequenceBits);
+	}
+
+	/**
+	 * Instantiates a new Sub millisecond id generator with the default tick and sequence bits.
+	 *
+	 * @param hostId     the host id
+	 * @param hostIdBits the host id bits
+	 */
+	public SubMillisecondIdGenerator(int hostId, int hostIdBits) {
+		this(NanoClock.anchored(), DEFAULT_TICK_MICROS, hostId, hostIdBits, DEFAULT_SEQUENCE_BITS);
+	}
+
+	/**
+	 * Instantiates a new Sub millisecond id generator.
+	 */
+	public SubMillisecondIdGenerator() {
+		this(0, 0);
+	}
+
+	private SubMillisecondIdGenerator(NanoClock clock, long startTick, long tickMicros, int hostId, int hostIdBits, int sequenceBits) {
+		super(Utils::pow2Sticky, hostIdBits, sequenceBits, startTick, TimeUnit.MICROSECONDS, tickMicros * 1000);
+		this.clock = clock;
+		assertPositive(sequenceBits, "Sequence bits must be >= 1, got %d");
+		assertNotNegative(hostIdBits, "Host ID bits must be >= 0, got %d");
+		if (hostIdBits + sequenceBits > 31) {
+			throw new IdSourceException("Host ID bits + sequence bits must be <= 31, got " + (hostIdBits + sequenceBits));
+		}
+		if (hostId < 0 || hostId > maxHostId) {
+			throw new IdSourceException("Host ID must be in range 0.." + maxHostId);
+		}
+		this.tickDivisor = new Divisor(tickNanos);
+		this.tickMicros = tickMicros;
+		this.ticksPerSec = 1_000_000 / tickMicros;
+		this.timestampShift = (short) (hostIdBits + sequenceBits);
+		this.idShift = (short) hostIdBits;
+		this.sequenceMask = (1L << sequenceBits) - 1;
+		this.hostIdMask = (1L << hostIdBits) - 1;
+		this.hostId = hostId;
+		this.tf = TimeTransformer.adjustedEpoch;
+		long timestampBits = 63 - timestampShift;
+		if (adjustedTicks(startTick + ticksPerSec * TimeUnit.DAYS.toSeconds(365 * MIN_LIFETIME_YEARS)) >>> timestampBits != 0) {
+			throw new IdSourceException(timestampBits + " timestamp bits with " + tickMicros + " us ticks do not last " + MIN_LIFETIME_YEARS + " years");
+		}
+	}
+
+	private static long currentTick(NanoClock clock, long tickMicros) {
+		Objects.requireNonNull(clock, "Expected clock");
+		if (tickMicros < 1 || 1000 % tickMicros != 0) {
+			throw new IdSourceException("Tick must be a divisor of 1000 microseconds, got " + tickMicros);
+		}
+		return clock.nanos() / (tickMicros * 1000);
+	}
+
+	/**
+	 * Reads the clock.
+	 *
+	 * @return current tick
+	 */
+	@Override
+	long readClock() {
+		return tickDivisor.divide(clock.nanos());
+	}
+
+	@Override
+	long clockTimeStamp(long clock) {
+		return clock;
+	}
+
+	@Override
+	NanoClock nanoClock() {
+		return clock;
+	}
+
+	private long adjustedTicks(long ticks) {
+		long seconds = Math.floorDiv(ticks, ticksPerSec);
+		return tf.transformTimestamp(seconds) * ticksPerSec + (ticks - seconds * ticksPerSec);
+	}
+
+	long buildId(long tick, long currentId) {
+		assert currentId <= maxId : "current ID exceeded max id";
+		long shiftedTime = adjustedTicks(tick) << timestampShift;
+		long shiftedId = currentId << idShift;
+		long id = shiftedTime | shiftedId | this.hostId;
+		assert id > 0 : "ID sign bit is set.";
+		return id;
+	}
+
+	@Override
+	public IdParts parse(long id) {
+		return new IdParts(timestampOf(id), hostIdOf(id), counterOf(id), TimeUnit.MICROSECONDS);
+	}
+
+	/**
+	 * Timestamp of the ID in microseconds, a multiple of the tick.
+	 *
+	 * @param id the id
+	 * @return the timestamp us
+	 */
+	@Override
+	public long timestampOf(long id) {
+		return ((id >>> timestampShift) + parsedTimestampOffset() * ticksPerSec) * tickMicros;
+	}
+
+	@Override
+	public int hostIdOf(long id) {
+		int hostId = (int) (id & hostIdMask);
+		return hostId > maxHostId ? -1 : hostId;
+	}
+
+	@Override
+	public long counterOf(long id) {
+		return (id >>> idShift) & sequenceMask;
+	}
+
+	@Override
+	void parse(long[] ids, int offset, int length, long[] timestamps, int[] hostIds, long[] currentIds, int outOffset) {
+		final int tsShift = timestampShift;
+		if (timestamps != null) {
+			final long restore = parsedTimestampOffset() * ticksPerSec;
+			final long tick = tickMicros;
+			for (int i = 0; i < length; i++) {
+				timestamps[outOffset + i] = ((ids[offset + i] >>> tsShift) + restore) * tick;
+			}
+		}
+		if (hostIds != null) {
+			final long hostMask = hostIdMask;
+			final long hostLimit = maxHostId;
+			for (int i = 0; i < length; i++) {
+				int hostId = (int) (ids[offset + i] & hostMask);
+				hostIds[outOffset + i] = hostId > hostLimit ? -1 : hostId;
+			}
+		}
+		if (currentIds != null) {
+			final int hostIdBits = idShift;
+			final long seqMask = sequenceMask;
+			for (int i = 0; i < length; i++) {
+				currentIds[outOffset + i] = (ids[offset + i] >>> hostIdBits) & seqMask;
+			}
+		}
+	}
+
+	/**
+	 * Restores the generator from the last ID it produced before restart.
+	 *
+	 * @param lastId       the last id
+	 * @param clock        the clock
+	 * @param tickMicros   the tick in microseconds
+	 * @param hostIdBits   the host id bits
+	 * @param sequenceBits the sequence bits
+	 * @return the sub millisecond id generator
+	 */
+	public static SubMillisecondIdGenerator fromLastKnownId(long lastId, NanoClock clock, long tickMicros, int hostIdBits, int sequenceBits) {
+		var tmpIdGenerator = new SubMillisecondIdGenerator(clock, tickMicros, 0, hostIdBits, sequenceBits);
+		var parts = tmpIdGenerator.parse(lastId);
+		long tick = parts.timestamp() / tickMicros;
+		var idGenerator = new SubMillisecondIdGenerator(clock, tick, tickMicros, parts.hostId(), hostIdBits, sequenceBits);
+		idGenerator.resetState(tick, parts.currentId());
+		return idGenerator;
+	}
+
+	/**
+	 * Gets clock.
+	 *
+	 * @return the clock
+	 */
+	public NanoClock getClock() {
+		return clock;
+	}
+
+	/**
+	 * Gets tick in microseconds.
+	 *
+	 * @return the tick micros
+	 */
+	public long getTickMicros() {
+		return tickMicros;
+	}
+
+	@Override
+	public long getHostId() {
+		return hostId;
+	}
+
+	@Override
+	public String toString() {
+		return "SubMillisecondIdGenerator{" +
+				"hostId=" + hostId +
+				", maxHostId=" + maxHostId +
+				", tickMicros=" + tickMicros +
+				", maxIdsPerMSec=" + maxIdPerMSec +
+				", pastShiftSlowTimeAfter=" + sleepAfter +
+				'}';
+	}
+}
@@ -0,0 +1,120 @@
+package com.aegisql.id_builder.impl;
+
+import com.aegisql.id_builder.IdRange;
+import com.aegisql.id_builder.IdSource;
+
+import java.util.List;
+import java.util.Objects;
+
+import static com.aegisql.id_builder.utils.Utils.assertPositive;
+
+/**
+ * The type Thread local id source.
+ * Decorates a generator and hands each thread, platform or virtual, its own cached block of IDs,
+ * so the shared generator is touched only once per block.
+ * <p>
+ * IDs returned to one thread are strictly increasing, and all IDs are unique, but IDs of
+ * different threads are not ordered by the time of the call: a thread that still consumes an
+ * older block returns smaller IDs than a thread that has just claimed a new one.
+ * A block is dropped, and its unused IDs are lost, when it runs out or when the second of its
+ * IDs is over, so the timestamp embedded in an ID is never older than one second
+ * (one millisecond for a {@link MillisecondIdGenerator}).
+ * Every thread keeps its block until it dies, so very short-lived threads
+ * should rather use a small block size or the generator itself.
+ */
+public final class ThreadLocalIdSource implements IdSource {
+
+	private final AbstractIdGenerator idGenerator;
+	private final int blockSize;
+	private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+
+	/**
+	 * Instantiates a new Thread local id source.
+	 *
+	 * @param idGenerator the id generator
+	 * @param blockSize   max number of IDs claimed by a thread at once
+	 */
+	public ThreadLocalIdSource(AbstractIdGenerator idGenerator, int blockSize) {
+		this.idGenerator = Objects.requireNonNull(idGenerator, "Expected ID generator");
+		assertPositive(blockSize, "Block size must be >= 1");
+		this.blockSize = blockSize;
+	}
+
+	@Override
+	public long getId() {
+		Block block = blocks.get();
+		if (block.remaining == 0 || idGenerator.clockTimeStamp(idGenerator.readClock()) > block.timeStampSec) {
+			block.refill(idGenerator.reserveAvailable(blockSize));
+		}
+		return block.next();
+	}
+
+	/**
+	 * Reserves IDs directly from the generator, bypassing the thread local block.
+	 *
+	 * @param n number of IDs to reserve
+	 * @return the id range
+	 */
+	@Override
+	public IdRange reserve(int n) {
+		return idGenerator.reserve(n);
+	}
+
+	/**
+	 * Gets block size.
+	 *
+	 * @return the block size
+	 */
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * Gets id generator.
+	 *
+	 * @return the id generator
+	 */
+	public AbstractIdGenerator getIdGenerator() {
+		return idGenerator;
+	}
+
+	private static final class Block {
+		private List<SegmentedIdRange.Segment> segments = List.of();
+		private int segment;
+		private long nextId;
+		private long step;
+		private int remaining;
+		private long timeStampSec;
+
+		private void refill(SegmentedIdRange range) {
+			segments = range.getSegments();
+			segment = -1;
+			nextSegment();
+		}
+
+		private void nextSegment() {
+			var s = segments.get(++segment);
+			nextId = s.firstId();
+			step = s.step();
+			remaining = s.count();
+			timeStampSec = s.timeStampSec();
+		}
+
+		private long next() {
+			long id = nextId;
+			nextId += step;
+			if (--remaining == 0 && segment + 1 < segments.size()) {
+				nextSegment();
+			}
+			return id;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ThreadLocalIdSource{" +
+				"blockSize=" + blockSize +
+				", idGenerator=" + idGenerator +
+				'}';
+	}
+}
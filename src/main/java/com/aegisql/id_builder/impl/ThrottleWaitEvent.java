@@ -0,0 +1,31 @@
+package com.aegisql.id_builder.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The type Throttle wait event.
+ * A claim waited for the budget of the current millisecond to grow.
+ */
+@Name("com.aegisql.id_builder.ThrottleWait")
+@Label("ID Throttle Wait")
+@Category("ID Builder")
+@Description("ID generator claim waited for the millisecond budget to grow")
+@StackTrace(false)
+@Threshold("0 ms")
+final class ThrottleWaitEvent extends jdk.jfr.Event {
+
+	@Label("Layout")
+	String layout;
+
+	@Label("Host ID")
+	long hostId;
+
+	@Label("Claimed IDs")
+	long claimedIds;
+
+}
@@ -0,0 +1,194 @@
+package com.aegisql.id_builder.server;
+
+import com.aegisql.id_builder.IdRange;
+import com.aegisql.id_builder.IdSource;
+import com.aegisql.id_builder.IdSourceException;
+import com.aegisql.id_builder.impl.SegmentedIdRange;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.aegisql.id_builder.utils.Utils.assertPositive;
+
+/**
+ * The type Id block client.
+ * IdSource backed by an {@link IdBlockServer} on the same host: IDs are served from a cached block,
+ * and the next block is requested asynchronously as soon as half of the current one is used,
+ * so getId() rarely waits for the round trip.
+ * <p>
+ * IDs returned by getId() of one client are strictly increasing. reserve(n) leases its own block,
+ * bypassing the cached ones, so reserved IDs are unique but not ordered against the IDs of getId().
+ * IDs of different clients are unique but not ordered between themselves,
+ * and the timestamp embedded in an ID is the time the block was leased.
+ * IDs of the cached blocks are lost when the client is closed.
+ */
+public final class IdBlockClient implements IdSource, AutoCloseable {
+
+	private final Path socketPath;
+	private final int blockSize;
+	private final Executor executor;
+	private final SocketChannel channel;
+	private final ReentrantLock channelLock = new ReentrantLock();
+	private final ReentrantLock lock = new ReentrantLock();
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+	private List<SegmentedIdRange.Segment> segments = List.of();
+	private int segment;
+	private long nextId;
+	private long step;
+	private int remaining;
+	private int left;
+	private CompletableFuture<SegmentedIdRange> prefetched;
+
+	/**
+	 * Instantiates a new Id block client and connects it to the server.
+	 *
+	 * @param socketPath the socket file path of the server
+	 * @param blockSize  number of IDs leased at once
+	 * @param executor   executor of the asynchronous prefetch
+	 */
+	public IdBlockClient(Path socketPath, int blockSize, Executor executor) {
+		this.socketPath = Objects.requireNonNull(socketPath, "Expected socket path");
+		this.executor = Objects.requireNonNull(executor, "Expected executor");
+		assertPositive(blockSize, "Block size must be >= 1");
+		if (blockSize > IdBlockProtocol.MAX_BLOCK_SIZE) {
+			throw new IdSourceException("Block size must be <= " + IdBlockProtocol.MAX_BLOCK_SIZE);
+		}
+		this.blockSize = blockSize;
+		try {
+			this.channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+			this.channel.connect(UnixDomainSocketAddress.of(socketPath));
+		} catch (IOException e) {
+			throw new IdSourceException("Failed to connect to ID block server " + socketPath, e);
+		}
+	}
+
+	/**
+	 * Instantiates a new Id block client prefetching on virtual threads.
+	 *
+	 * @param socketPath the socket file path of the server
+	 * @param blockSize  number of IDs leased at once
+	 */
+	public IdBlockClient(Path socketPath, int blockSize) {
+		this(socketPath, blockSize, task -> Thread.ofVirtual().name("id-builder-block-prefetch").start(task));
+	}
+
+	@Override
+	public long getId() {
+		lock.lock();
+		try {
+			if (remaining == 0) {
+				nextBlock();
+			}
+			long id = nextId;
+			nextId += step;
+			if (--remaining == 0 && segment + 1 < segments.size()) {
+				nextSegment();
+			}
+			if (--left == blockSize / 2 && prefetched == null) {
+				prefetched = CompletableFuture.supplyAsync(() -> lease(blockSize), executor);
+			}
+			return id;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Leases n IDs from the server in one round trip, bypassing the cached block.
+	 * The IDs of the cached and prefetched blocks, leased earlier, are lower and are still returned by getId().
+	 *
+	 * @param n number of IDs to reserve
+	 * @return the id range
+	 */
+	@Override
+	public IdRange reserve(int n) {
+		assertPositive(n, "Number of reserved IDs must be >= 1");
+		return lease(n);
+	}
+
+	private void nextBlock() {
+		SegmentedIdRange range;
+		if (prefetched != null) {
+			try {
+				range = prefetched.join();
+			} catch (CompletionException e) {
+				throw e.getCause() instanceof IdSourceException ise ? ise : new IdSourceException("ID block prefetch failed", e.getCause());
+			} finally {
+				prefetched = null;
+			}
+		} else {
+			range = lease(blockSize);
+		}
+		segments = range.getSegments();
+		left = range.size();
+		segment = -1;
+		nextSegment();
+	}
+
+	private void nextSegment() {
+		var s = segments.get(++segment);
+		nextId = s.firstId();
+		step = s.step();
+		remaining = s.count();
+	}
+
+	private SegmentedIdRange lease(int n) {
+		channelLock.lock();
+		try {
+			IdBlockProtocol.writeRequest(channel, buffer, n);
+			return IdBlockProtocol.readResponse(channel, buffer);
+		} catch (IOException e) {
+			throw new IdSourceException("ID block server " + socketPath + " is not available", e);
+		} finally {
+			channelLock.unlock();
+		}
+	}
+
+	/**
+	 * Gets block size.
+	 *
+	 * @return the block size
+	 */
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * Gets socket path.
+	 *
+	 * @return the socket path
+	 */
+	public Path getSocketPath() {
+		return socketPath;
+	}
+
+	/**
+	 * Closes the connection. Unused IDs of the cached blocks are lost.
+	 */
+	@Override
+	public void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			throw new IdSourceException("Failed to close connection to " + socketPath, e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "IdBlockClient{" +
+				"socketPath=" + socketPath +
+				", blockSize=" + blockSize +
+				'}';
+	}
+}
@@ -0,0 +1,134 @@
+package com.aegisql.id_builder.server;
+
+import com.aegisql.id_builder.IdSourceException;
+import com.aegisql.id_builder.impl.SegmentedIdRange;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wire format of the block server. All numbers are big-endian.
+ * <pre>
+ * request:  int blockSize
+ * response: int segmentCount, then per segment: long timeStamp, long firstId, long step, int count
+ * error:    int -1, int length, UTF-8 message
+ * </pre>
+ */
+final class IdBlockProtocol {
+
+	/**
+	 * Max number of IDs in one block.
+	 */
+	static final int MAX_BLOCK_SIZE = 1 << 24;
+
+	static final int REQUEST_BYTES = Integer.BYTES;
+	static final int SEGMENT_BYTES = 3 * Long.BYTES + Integer.BYTES;
+	private static final int ERROR = -1;
+
+	/**
+	 * Returned by readRequest when the peer closed the connection; outside the range of int block sizes.
+	 */
+	static final long EOF = Long.MIN_VALUE;
+
+	private IdBlockProtocol() {
+	}
+
+	static void writeRequest(ByteChannel channel, ByteBuffer buffer, int blockSize) throws IOException {
+		buffer.clear();
+		buffer.putInt(blockSize);
+		writeFully(channel, buffer.flip());
+	}
+
+	/**
+	 * Reads a request.
+	 *
+	 * @return the block size as sent, possibly out of range, or EOF if the peer closed the connection
+	 */
+	static long readRequest(ByteChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.clear().limit(REQUEST_BYTES);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				if (buffer.position() == 0) {
+					return EOF;
+				}
+				throw new EOFException("Connection closed in the middle of a request");
+			}
+		}
+		return buffer.flip().getInt();
+	}
+
+	static ByteBuffer writeResponse(ByteChannel channel, ByteBuffer buffer, SegmentedIdRange range) throws IOException {
+		List<SegmentedIdRange.Segment> segments = range.getSegments();
+		buffer = ensureCapacity(buffer, Integer.BYTES + segments.size() * SEGMENT_BYTES);
+		buffer.clear();
+		buffer.putInt(segments.size());
+		for (SegmentedIdRange.Segment segment : segments) {
+			buffer.putLong(segment.timeStampSec());
+			buffer.putLong(segment.firstId());
+			buffer.putLong(segment.step());
+			buffer.putInt(segment.count());
+		}
+		writeFully(channel, buffer.flip());
+		return buffer;
+	}
+
+	static ByteBuffer writeError(ByteChannel channel, ByteBuffer buffer, String message) throws IOException {
+		byte[] bytes = String.valueOf(message).getBytes(StandardCharsets.UTF_8);
+		buffer = ensureCapacity(buffer, 2 * Integer.BYTES + bytes.length);
+		buffer.clear();
+		buffer.putInt(ERROR);
+		buffer.putInt(bytes.length);
+		buffer.put(bytes);
+		writeFully(channel, buffer.flip());
+		return buffer;
+	}
+
+	/**
+	 * Reads a response.
+	 *
+	 * @return the range
+	 * @throws IdSourceException with the message of the server, if the server refused the request
+	 */
+	static SegmentedIdRange readResponse(ByteChannel channel, ByteBuffer buffer) throws IOException {
+		int segmentCount = readFully(channel, buffer, Integer.BYTES).getInt();
+		if (segmentCount == ERROR) {
+			int length = readFully(channel, buffer, Integer.BYTES).getInt();
+			ByteBuffer message = readFully(channel, ensureCapacity(buffer, length), length);
+			throw new IdSourceException("ID block server error: " + StandardCharsets.UTF_8.decode(message));
+		}
+		if (segmentCount < 1) {
+			throw new IOException("Unexpected segment count " + segmentCount);
+		}
+		List<SegmentedIdRange.Segment> segments = new ArrayList<>(segmentCount);
+		for (int i = 0; i < segmentCount; i++) {
+			ByteBuffer b = readFully(channel, buffer, SEGMENT_BYTES);
+			segments.add(new SegmentedIdRange.Segment(b.getLong(), b.getLong(), b.getLong(), b.getInt()));
+		}
+		return new SegmentedIdRange(segments);
+	}
+
+	private static ByteBuffer ensureCapacity(ByteBuffer buffer, int capacity) {
+		return buffer.capacity() >= capacity ? buffer : ByteBuffer.allocateDirect(capacity);
+	}
+
+	private static ByteBuffer readFully(ByteChannel channel, ByteBuffer buffer, int length) throws IOException {
+		buffer.clear().limit(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new EOFException("Connection closed by the peer");
+			}
+		}
+		return buffer.flip();
+	}
+
+	private static void writeFully(ByteChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+}
@@ -0,0 +1,232 @@
+package com.aegisql.id_builder.server;
+
+import com.aegisql.id_builder.IdSourceException;
+import com.aegisql.id_builder.impl.AbstractIdGenerator;
+import com.aegisql.id_builder.impl.SegmentedIdRange;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The type Id block server.
+ * Owns one generator, and so one host ID, and leases blocks of IDs to local processes over a
+ * Unix domain socket: one round trip per block. Use {@link IdBlockClient} as the client.
+ * <p>
+ * Every connection is served by its own thread, virtual by default. A block is reserved with
+ * {@link AbstractIdGenerator#reserve(int)} and sent as the segments of the reserved range,
+ * so a block of any size costs a few dozen bytes on the wire.
+ * The socket file is created when the server starts and deleted when it is closed.
+ * A socket file left behind by a server that did not close is deleted on start;
+ * the server refuses to start if another server answers on the file, or if the file is not a socket.
+ */
+public final class IdBlockServer implements AutoCloseable {
+
+	private static final long MAX_ACCEPT_BACK_OFF_MILLIS = 1000;
+
+	private final AbstractIdGenerator idGenerator;
+	private final Path socketPath;
+	private final ThreadFactory threadFactory;
+	private final ServerSocketChannel serverChannel;
+	private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+	private final LongAdder blocks = new LongAdder();
+	private final LongAdder ids = new LongAdder();
+	private final Thread acceptor;
+	private volatile boolean running = true;
+
+	/**
+	 * Instantiates and starts a new Id block server.
+	 *
+	 * @param idGenerator   the id generator
+	 * @param socketPath    the socket file path
+	 * @param threadFactory factory of the accepting and connection threads
+	 */
+	public IdBlockServer(AbstractIdGenerator idGenerator, Path socketPath, ThreadFactory threadFactory) {
+		this.idGenerator = Objects.requireNonNull(idGenerator, "Expected ID generator");
+		this.socketPath = Objects.requireNonNull(socketPath, "Expected socket path");
+		this.threadFactory = Objects.requireNonNull(threadFactory, "Expected thread factory");
+		deleteStaleSocket(socketPath);
+		try {
+			this.serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+			this.serverChannel.bind(UnixDomainSocketAddress.of(socketPath));
+		} catch (IOException e) {
+			throw new IdSourceException("Failed to bind ID block server to " + socketPath, e);
+		}
+		this.acceptor = threadFactory.newThread(this::accept);
+		this.acceptor.start();
+	}
+
+	/**
+	 * Instantiates and starts a new Id block server serving connections on virtual threads.
+	 *
+	 * @param idGenerator the id generator
+	 * @param socketPath  the socket file path
+	 */
+	public IdBlockServer(AbstractIdGenerator idGenerator, Path socketPath) {
+		this(idGenerator, socketPath, Thread.ofVirtual().name("id-builder-block-server-", 0).factory());
+	}
+
+	private static void deleteStaleSocket(Path socketPath) {
+		if (!Files.exists(socketPath)) {
+			return;
+		}
+		if (Files.isRegularFile(socketPath) || Files.isDirectory(socketPath)) {
+			throw new IdSourceException("File " + socketPath + " already exists and is not a socket");
+		}
+		try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+			channel.connect(UnixDomainSocketAddress.of(socketPath));
+		} catch (IOException e) {
+			// nobody listens: the file was left by a server that did not close
+			try {
+				Files.deleteIfExists(socketPath);
+				return;
+			} catch (IOException de) {
+				throw new IdSourceException("Failed to delete stale socket file " + socketPath, de);
+			}
+		}
+		throw new IdSourceException("Another ID block server is running on " + socketPath);
+	}
+
+	private void accept() {
+		long backOffMillis = 0;
+		while (running) {
+			try {
+				SocketChannel channel = serverChannel.accept();
+				connections.add(channel);
+				if (!running) {
+					// close() may have closed the connections before this one was added
+					connections.remove(channel);
+					channel.close();
+					return;
+				}
+				threadFactory.newThread(() -> serve(channel)).start();
+				backOffMillis = 0;
+			} catch (ClosedChannelException e) {
+				return;
+			} catch (IOException e) {
+				// e.g. out of file descriptors: retrying at once would spin until a connection closes
+				backOffMillis = Math.min(Math.max(2 * backOffMillis, 1), MAX_ACCEPT_BACK_OFF_MILLIS);
+				try {
+					Thread.sleep(backOffMillis);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	private void serve(SocketChannel channel) {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+		try (channel) {
+			while (running) {
+				long request = IdBlockProtocol.readRequest(channel, buffer);
+				if (request == IdBlockProtocol.EOF) {
+					return;
+				}
+				int blockSize = (int) request;
+				if (blockSize < 1 || blockSize > IdBlockProtocol.MAX_BLOCK_SIZE) {
+					buffer = IdBlockProtocol.writeError(channel, buffer,
+							"Block size must be in range 1.." + IdBlockProtocol.MAX_BLOCK_SIZE + ", got " + blockSize);
+					continue;
+				}
+				SegmentedIdRange range;
+				try {
+					range = idGenerator.reserve(blockSize);
+				} catch (IdSourceException e) {
+					buffer = IdBlockProtocol.writeError(channel, buffer, e.getMessage());
+					continue;
+				}
+				buffer = IdBlockProtocol.writeResponse(channel, buffer, range);
+				blocks.increment();
+				ids.add(blockSize);
+			}
+		} catch (IOException e) {
+			// the client went away; its unused IDs are lost
+		} finally {
+			connections.remove(channel);
+		}
+	}
+
+	/**
+	 * Number of leased blocks.
+	 *
+	 * @return the blocks
+	 */
+	public long getLeasedBlocks() {
+		return blocks.sum();
+	}
+
+	/**
+	 * Number of leased IDs.
+	 *
+	 * @return the ids
+	 */
+	public long getLeasedIds() {
+		return ids.sum();
+	}
+
+	/**
+	 * Number of open client connections.
+	 *
+	 * @return the connections
+	 */
+	public int getConnections() {
+		return connections.size();
+	}
+
+	/**
+	 * Gets socket path.
+	 *
+	 * @return the socket path
+	 */
+	public Path getSocketPath() {
+		return socketPath;
+	}
+
+	/**
+	 * Gets id generator.
+	 *
+	 * @return the id generator
+	 */
+	public AbstractIdGenerator getIdGenerator() {
+		return idGenerator;
+	}
+
+	/**
+	 * Stops accepting connections, closes open connections and deletes the socket file.
+	 */
+	@Override
+	public void close() {
+		running = false;
+		try {
+			serverChannel.close();
+			for (SocketChannel channel : connections) {
+				channel.close();
+			}
+			Files.deleteIfExists(socketPath);
+		} catch (IOException e) {
+			throw new IdSourceException("Failed to close ID block server " + socketPath, e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "IdBlockServer{" +
+				"socketPath=" + socketPath +
+				", leasedBlocks=" + getLeasedBlocks() +
+				", idGenerator=" + idGenerator +
+				'}';
+	}
+}
@@ -0,0 +1,114 @@
+package com.aegisql.id_builder.utils;
+
+import com.aegisql.id_builder.IdSourceException;
+
+import java.math.BigInteger;
+
+/**
+ * The type Divisor.
+ * Division of a long by a constant chosen at construction, done as a multiply-high and shifts
+ * (Granlund and Montgomery, "Division by Invariant Integers using Multiplication").
+ * Trailing zero bits of the divisor are shifted out of the dividend first, which leaves room
+ * for a magic number that fits a signed long for decimal bases.
+ * Negative dividends and divisors without a suitable magic number fall back to the division instruction.
+ * Results are always equal to n / divisor and n % divisor.
+ */
+public final class Divisor {
+
+    private final long divisor;
+    private final int trailingZeros;
+    private final long odd;
+    private final long magic;
+    private final int shift;
+    private final boolean fallback;
+
+    /**
+     * Instantiates a new Divisor.
+     *
+     * @param divisor the divisor, must be positive
+     */
+    public Divisor(long divisor) {
+        if (divisor < 1) {
+            throw new IdSourceException("Divisor must be >= 1, got " + divisor);
+        }
+        this.divisor = divisor;
+        this.trailingZeros = Long.numberOfTrailingZeros(divisor);
+        this.odd = divisor >>> trailingZeros;
+        long magic = 0;
+        int shift = 0;
+        boolean found = odd == 1;
+        if (!found) {
+            // dividend has at most 63 - trailingZeros significant bits after the shift.
+            // m = ceil(2^k / odd) and e = m * odd - 2^k; floor(n * m / 2^k) == floor(n / odd) for all such n when e * 2^bits <= 2^k
+            int bits = 63 - trailingZeros;
+            BigInteger d = BigInteger.valueOf(odd);
+            for (int k = 64; k < 128; k++) {
+                BigInteger pow = BigInteger.ONE.shiftLeft(k);
+                BigInteger m = pow.add(d).subtract(BigInteger.ONE).divide(d);
+                if (m.bitLength() > 63) {
+                    break;
+                }
+                BigInteger e = m.multiply(d).subtract(pow);
+                if (e.shiftLeft(bits).compareTo(pow) <= 0) {
+                    magic = m.longValue();
+                    shift = k - 64;
+                    found = true;
+                    break;
+                }
+            }
+        }
+        this.magic = magic;
+        this.shift = shift;
+        this.fallback = !found;
+    }
+
+    /**
+     * Gets divisor.
+     *
+     * @return the divisor
+     */
+    public long getDivisor() {
+        return divisor;
+    }
+
+    /**
+     * Divide, same as n / divisor.
+     *
+     * @param n the dividend
+     * @return the quotient
+     */
+    public long divide(long n) {
+        if (n < 0 || fallback) {
+            return n / divisor;
+        }
+        long shifted = n >>> trailingZeros;
+        return odd == 1 ? shifted : Math.multiplyHigh(shifted, magic) >>> shift;
+    }
+
+    /**
+     * Remainder, same as n % divisor.
+     *
+     * @param n the dividend
+     * @return the remainder
+     */
+    public long remainder(long n) {
+        return n - divide(n) * divisor;
+    }
+
+    /**
+     * Whether the division instruction is used for non-negative dividends.
+     *
+     * @return the boolean
+     */
+    public boolean isFallback() {
+        return fallback;
+    }
+
+    @Override
+    public String toString() {
+        return "Divisor{" +
+                "divisor=" + divisor +
+                (fallback ? ", fallback" : ", magic=" + magic + ", shift=" + shift + ", trailingZeros=" + trailingZeros) +
+                '}';
+    }
+}
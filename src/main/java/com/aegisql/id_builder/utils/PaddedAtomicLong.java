@@ -0,0 +1,90 @@
+package com.aegisql.id_builder.utils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * The left hand side padding.
+ */
+abstract class LhsPadding {
+    long p01, p02, p03, p04, p05, p06, p07;
+}
+
+/**
+ * The padded value.
+ */
+abstract class PaddedValue extends LhsPadding {
+    volatile long value;
+}
+
+/**
+ * The type Padded atomic long.
+ * Long value accessed via VarHandle and surrounded by a cache line of padding on each side,
+ * so that heavily CAS-ed state does not share a line with its neighbours.
+ */
+public final class PaddedAtomicLong extends PaddedValue {
+
+    long p09, p10, p11, p12, p13, p14, p15;
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(PaddedValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Instantiates a new Padded atomic long.
+     *
+     * @param initialValue the initial value
+     */
+    public PaddedAtomicLong(long initialValue) {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    /**
+     * Get long.
+     *
+     * @return the long
+     */
+    public long get() {
+        return value;
+    }
+
+    /**
+     * Set.
+     *
+     * @param newValue the new value
+     */
+    public void set(long newValue) {
+        value = newValue;
+    }
+
+    /**
+     * Sets release.
+     *
+     * @param newValue the new value
+     */
+    public void setRelease(long newValue) {
+        VALUE.setRelease(this, newValue);
+    }
+
+    /**
+     * Compare and set boolean.
+     *
+     * @param expected the expected
+     * @param newValue the new value
+     * @return the boolean
+     */
+    public boolean compareAndSet(long expected, long newValue) {
+        return VALUE.compareAndSet(this, expected, newValue);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(value);
+    }
+}
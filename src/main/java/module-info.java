@@ -1,4 +1,9 @@
 module id.builder {
+    requires transitive java.management;
+    requires jdk.jfr;
+
     exports com.aegisql.id_builder;
     exports com.aegisql.id_builder.impl;
+    exports com.aegisql.id_builder.codec;
+    exports com.aegisql.id_builder.server;
 }
\ No newline at end of file
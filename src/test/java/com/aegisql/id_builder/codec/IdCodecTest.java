@@ -0,0 +1,130 @@
+package com.aegisql.id_builder.codec;
+
+import com.aegisql.id_builder.IdSourceException;
+import com.aegisql.id_builder.impl.DecimalIdGenerator;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class IdCodecTest {
+
+    private static final IdCodec[] CODECS = {IdCodec.crockfordBase32, IdCodec.base62};
+
+    @Test
+    public void widthAndKnownValuesTest() {
+        assertEquals(13, IdCodec.crockfordBase32.width());
+        assertEquals(11, IdCodec.base62.width());
+        assertEquals("0000000000000", IdCodec.crockfordBase32.encodeToString(0));
+        assertEquals("000000000001Z", IdCodec.crockfordBase32.encodeToString(63));
+        assertEquals("FZZZZZZZZZZZZ", IdCodec.crockfordBase32.encodeToString(-1L));
+        assertEquals("0000000000z", IdCodec.base62.encodeToString(61));
+        assertEquals("0000000000A", IdCodec.base62.encodeToString(10));
+        assertEquals("LygHa16AHYF", IdCodec.base62.encodeToString(-1L));
+    }
+
+    @Test
+    public void roundTripTest() {
+        var random = new SplittableRandom(1);
+        for (IdCodec codec : CODECS) {
+            byte[] bytes = new byte[codec.width() + 3];
+            char[] chars = new char[codec.width() + 3];
+            ByteBuffer direct = ByteBuffer.allocateDirect(codec.width());
+            for (int i = 0; i < 100_000; i++) {
+                long id = random.nextLong() >>> random.nextInt(64);
+                assertEquals(codec.width() + 3, codec.encode(id, bytes, 3));
+                assertEquals(id, codec.decode(bytes, 3));
+                codec.encode(id, chars, 3);
+                assertEquals(id, codec.decode(chars, 3));
+                codec.encode(id, direct.clear());
+                assertEquals(codec.width(), direct.position());
+                assertEquals(id, codec.decode(direct.flip()));
+                assertEquals(id, codec.decode(codec.encodeToString(id)));
+            }
+            assertEquals(Long.MAX_VALUE, codec.decode(codec.encodeToString(Long.MAX_VALUE)));
+            assertEquals(-1L, codec.decode(codec.encodeToString(-1L)));
+        }
+    }
+
+    @Test
+    public void orderTest() {
+        var random = new SplittableRandom(2);
+        long[] ids = random.longs(10_000, 0, Long.MAX_VALUE).toArray();
+        ids[0] = 0;
+        ids[1] = Long.MAX_VALUE;
+        Arrays.sort(ids);
+        for (IdCodec codec : CODECS) {
+            String prev = null;
+            for (long id : ids) {
+                String s = codec.encodeToString(id);
+                if (prev != null) {
+                    assertTrue(prev + " < " + s, prev.compareTo(s) <= 0);
+                }
+                prev = s;
+            }
+        }
+    }
+
+    @Test
+    public void bulkTest() {
+        long[] ids = DecimalIdGenerator.idGenerator_10x8(5).reserve(1000).toArray();
+        for (IdCodec codec : CODECS) {
+            byte[] bytes = new byte[ids.length * codec.width()];
+            assertEquals(bytes.length, codec.encode(ids, 0, ids.length, bytes, 0));
+            long[] decoded = new long[ids.length];
+            codec.decode(bytes, 0, decoded, 0, ids.length);
+            assertArrayEquals(ids, decoded);
+
+            char[] chars = new char[ids.length * codec.width()];
+            codec.encode(ids, 0, ids.length, chars, 0);
+            assertEquals(new String(bytes, StandardCharsets.US_ASCII), new String(chars));
+            Arrays.fill(decoded, 0);
+            codec.decode(chars, 0, decoded, 0, ids.length);
+            assertArrayEquals(ids, decoded);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+            codec.encode(ids, buffer);
+            assertFalse(buffer.hasRemaining());
+            Arrays.fill(decoded, 0);
+            codec.decode(buffer.flip(), decoded);
+            assertArrayEquals(ids, decoded);
+        }
+    }
+
+    @Test
+    public void crockfordAliasesTest() {
+        long id = IdCodec.crockfordBase32.decode("01ABCDEFGHJKM");
+        assertEquals(id, IdCodec.crockfordBase32.decode("o1abcdefghjkm"));
+        assertEquals(IdCodec.crockfordBase32.decode("0000000000011"), IdCodec.crockfordBase32.decode("00000000000IL"));
+    }
+
+    private static void assertInvalid(IdCodec codec, String encoded) {
+        try {
+            codec.decode(encoded);
+            fail("Expected failure for " + encoded);
+        } catch (IdSourceException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    @Test
+    public void strictDecodeTest() {
+        assertInvalid(IdCodec.crockfordBase32, "000000000000");
+        assertInvalid(IdCodec.crockfordBase32, "00000000000000");
+        assertInvalid(IdCodec.crockfordBase32, "000000000000U");
+        assertInvalid(IdCodec.crockfordBase32, "00000000000-0");
+        assertInvalid(IdCodec.crockfordBase32, "G000000000000");
+        assertInvalid(IdCodec.crockfordBase32, "ZZZZZZZZZZZZZ");
+        assertInvalid(IdCodec.base62, "LygHa16AHYG");
+        assertInvalid(IdCodec.base62, "zzzzzzzzzzz");
+        assertInvalid(IdCodec.base62, "0000000000é");
+        assertInvalid(IdCodec.base62, "0000000000 ");
+        byte[] bytes = "0000000000ÿ".getBytes(StandardCharsets.ISO_8859_1);
+        assertThrows(IdSourceException.class, () -> IdCodec.base62.decode(bytes, 0));
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.aegisql.id_builder.codec;
+
+import com.aegisql.id_builder.IdSourceException;
+import com.aegisql.id_builder.impl.BinaryIdGenerator;
+import com.aegisql.id_builder.impl.DecimalIdGenerator;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SortableKeyCodecTest {
+
+    private static void assertSorted(SortableKeyCodec codec, long[] ids) {
+        byte[] prev = null;
+        for (long id : ids) {
+            byte[] key = new byte[codec.keySize()];
+            codec.write(id, key, 0);
+            assertEquals(id, codec.read(key, 0));
+            if (prev != null) {
+                assertTrue(Arrays.compareUnsigned(prev, key) < 0);
+            }
+            prev = key;
+        }
+    }
+
+    @Test
+    public void generationOrderTest() {
+        var codec = new SortableKeyCodec("ids/".getBytes());
+        assertSorted(codec, DecimalIdGenerator.idGenerator_10x4x5(11).reserve(10_000).toArray());
+        assertSorted(codec, new BinaryIdGenerator().reserve(10_000).toArray());
+        assertSorted(new SortableKeyCodec(), new long[]{Long.MIN_VALUE, -100, -1, 0, 1, 100, Long.MAX_VALUE});
+    }
+
+    @Test
+    public void byteBufferTest() {
+        long[] ids = DecimalIdGenerator.idGenerator_10x8(3).reserve(1000).toArray();
+        for (var codec : new SortableKeyCodec[]{new SortableKeyCodec(), new SortableKeyCodec(new byte[]{7, 7})}) {
+            for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+                ByteBuffer direct = ByteBuffer.allocateDirect(ids.length * codec.keySize()).order(order);
+                codec.write(ids, 0, ids.length, direct);
+                assertFalse(direct.hasRemaining());
+                direct.flip();
+                byte[] key = new byte[codec.keySize()];
+                codec.write(ids[5], key, 0);
+                assertEquals(-1, direct.slice(5 * codec.keySize(), codec.keySize()).mismatch(ByteBuffer.wrap(key)));
+                long[] decoded = new long[ids.length];
+                codec.read(direct, decoded, 0, ids.length);
+                assertArrayEquals(ids, decoded);
+                assertEquals(order, direct.order());
+
+                ByteBuffer single = ByteBuffer.allocate(codec.keySize()).order(order);
+                codec.write(ids[7], single);
+                assertEquals(ids[7], codec.read(single.flip()));
+            }
+        }
+    }
+
+    @Test(expected = IdSourceException.class)
+    public void prefixMismatchTest() {
+        byte[] key = new byte[10];
+        new SortableKeyCodec(new byte[]{1, 2}).write(42, key, 0);
+        new SortableKeyCodec(new byte[]{1, 3}).read(ByteBuffer.wrap(key));
+    }
+
+    @Test(expected = IdSourceException.class)
+    public void noRoomTest() {
+        new SortableKeyCodec().write(42, ByteBuffer.allocate(7));
+    }
+
+}
@@ -4,11 +4,15 @@ import com.aegisql.id_builder.IdParts;
 import com.aegisql.id_builder.IdSourceException;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -89,6 +93,16 @@ public class BinaryIdGeneratorTest {
 
     }
 
+    @Test
+    public void bulkParseTest() {
+        var ig0 = new BinaryIdGenerator(unixTimestamp(), (short) 0, 0, 0);
+        DecimalIdGeneratorTest.assertBulkParse(ig0, ig0.reserve(5000).toArray());
+        var ig1 = new BinaryIdGenerator(unixTimestamp(), (short) 1, 3, 2);
+        DecimalIdGeneratorTest.assertBulkParse(ig1, ig1.reserve(5000).toArray());
+        ig1.setTimeTransformer(identity);
+        DecimalIdGeneratorTest.assertBulkParse(ig1, ig1.reserve(100).toArray());
+    }
+
     private IdParts getParts(int shift, int hostId, int hostBits) {
         long timestamp = unixTimestamp();
 
@@ -147,6 +161,60 @@ public class BinaryIdGeneratorTest {
 
     }
 
+    @Test
+    public void lockFreeMultiThreadTest() throws InterruptedException, ExecutionException {
+        final int threadCount = 20;
+        final int iterationsPerThread = 100000;
+        var ig1 = new BinaryIdGenerator(unixTimestamp(), (short) 1,0xFF,12);
+        ig1.setConcurrencyMode(ConcurrencyMode.LOCK_FREE);
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+
+        List<Future<long[]>> futures = new ArrayList<>(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            futures.add(executorService.submit(() -> {
+                long[] ids = new long[iterationsPerThread];
+                for (int j = 0; j < iterationsPerThread; j++) {
+                    ids[j] = ig1.getId();
+                }
+                return ids;
+            }));
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(10, TimeUnit.MINUTES));
+
+        Set<Long> allResults = new HashSet<>(iterationsPerThread*threadCount);
+        for (Future<long[]> future : futures) {
+            long[] ids = future.get();
+            for (int j = 1; j < ids.length; j++) {
+                assertTrue(ids[j - 1] < ids[j]);
+            }
+            for (long id : ids) {
+                allResults.add(id);
+            }
+        }
+        assertEquals(iterationsPerThread*threadCount,allResults.size());
+        assertEquals(iterationsPerThread*threadCount,ig1.getGlobalCounter());
+    }
+
+    @Test
+    public void reserveTest() {
+        var ig = new BinaryIdGenerator(unixTimestamp(), (short) 1,0xFF,12);
+        var range = ig.reserve(100000);
+        assertEquals(100000, range.size());
+        long prev = 0;
+        var it = range.iterator();
+        while (it.hasNext()) {
+            long id = it.nextLong();
+            assertTrue(prev < id);
+            assertEquals(0xFF, ig.parse(id).hostId());
+            prev = id;
+        }
+        for (var segment : range.getSegments()) {
+            assertEquals(1L << 12, segment.step());
+        }
+        assertTrue(prev < ig.getId());
+    }
+
     @Test
     public void lastIdTest() {
         var ig0 = new BinaryIdGenerator(unixTimestamp(), (short) 1,2,4).asStream().skip(10);
@@ -0,0 +1,52 @@
+package com.aegisql.id_builder.impl;
+
+import org.junit.Test;
+
+import static java.lang.System.currentTimeMillis;
+import static org.junit.Assert.*;
+
+public class CachedClockTest {
+
+    @Test
+    public void tickingClockTest() throws InterruptedException {
+        try (CachedClock clock = CachedClock.ticking(1000)) {
+            for (int i = 0; i < 10; i++) {
+                long diff = currentTimeMillis() - clock.getAsLong();
+                assertTrue(diff >= -1 && diff < 50);
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    @Test
+    public void refreshedOnReadClockTest() throws InterruptedException {
+        CachedClock clock = CachedClock.refreshedOnRead(500);
+        for (int i = 0; i < 10; i++) {
+            long packed = clock.secondsAndMillis();
+            long ms = packed & CachedClock.MILLIS_MASK;
+            assertTrue(ms < 1000);
+            assertEquals(clock.getAsLong() / 1000, packed >>> CachedClock.MILLIS_BITS, 1);
+            long diff = currentTimeMillis() - clock.getAsLong();
+            assertTrue(diff >= -1 && diff < 50);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void generatorTest() {
+        for (CachedClock clock : new CachedClock[]{CachedClock.ticking(100), CachedClock.refreshedOnRead(100)}) {
+            var ig = DecimalIdGenerator.idGenerator_10x8();
+            ig.setTimestampSupplier(clock);
+            long prev = 0;
+            for (int i = 0; i < 1000000; i++) {
+                long id = ig.getId();
+                assertTrue(prev < id);
+                prev = id;
+            }
+            assertEquals(1000000, ig.getMetrics().getIssuedIds());
+            assertEquals(currentTimeMillis() / 1000, ig.parse(prev).timestamp(), 1);
+            clock.close();
+        }
+    }
+
+}
@@ -5,18 +5,31 @@ import static com.aegisql.id_builder.utils.Utils.unixTimestamp;
 import static java.lang.System.currentTimeMillis;
 import static org.junit.Assert.*;
 
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.LongStream;
 
 import com.aegisql.id_builder.IdParts;
+import com.aegisql.id_builder.IdRange;
+import com.aegisql.id_builder.IdSource;
 import com.aegisql.id_builder.IdSourceException;
+import com.aegisql.id_builder.PacingPolicy;
 import com.aegisql.id_builder.TimeTransformer;
+import com.aegisql.id_builder.WaitStrategy;
 import org.junit.Test;
 
 public class DecimalIdGeneratorTest {
@@ -228,12 +241,279 @@ public class DecimalIdGeneratorTest {
 
 	}
 
+	@Test
+	public void lockFreeMultiThreadTest() throws InterruptedException, ExecutionException {
+		final int threadCount = 20;
+		final int iterationsPerThread = 500000;
+		var ig1 = DecimalIdGenerator.idGenerator_10x8();
+		ig1.setConcurrencyMode(ConcurrencyMode.LOCK_FREE);
+		ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+
+		List<Future<long[]>> futures = new ArrayList<>(threadCount);
+		for (int i = 0; i < threadCount; i++) {
+			futures.add(executorService.submit(() -> {
+				long[] ids = new long[iterationsPerThread];
+				for (int j = 0; j < iterationsPerThread; j++) {
+					ids[j] = ig1.getId();
+				}
+				return ids;
+			}));
+		}
+		executorService.shutdown();
+		assertTrue(executorService.awaitTermination(10, TimeUnit.MINUTES));
+
+		Set<Long> allResults = new HashSet<>(iterationsPerThread*threadCount);
+		for (Future<long[]> future : futures) {
+			long[] ids = future.get();
+			for (int j = 1; j < ids.length; j++) {
+				assertTrue(ids[j - 1] < ids[j]);
+			}
+			for (long id : ids) {
+				allResults.add(id);
+			}
+		}
+
+		assertEquals(iterationsPerThread*threadCount,allResults.size());
+		assertEquals(iterationsPerThread*threadCount,ig1.getGlobalCounter());
+	}
+
+	@Test
+	public void lockFreePastShiftTest() {
+		DecimalIdGenerator ig1 = DecimalIdGenerator.idGenerator_10x4x5(1001);
+		ig1.setConcurrencyMode(ConcurrencyMode.LOCK_FREE);
+		final long now = currentTimeMillis();
+		ig1.setTimestampSupplier(()->{
+			long timestamp = currentTimeMillis();
+			return timestamp - now < 500 ? timestamp : timestamp - 2000;
+		});
+		long prev = 0;
+		for( int i = 1; i < 500001; i++ ) {
+			long next = ig1.getId();
+			assertTrue(prev < next);
+			prev = next;
+		}
+		assertEquals(500000, ig1.getGlobalCounter());
+	}
+
+	@Test
+	public void reserveTest() {
+		var ig1 = DecimalIdGenerator.idGenerator_10x4x5(1001);
+		long prev = ig1.getId();
+		IdRange range = ig1.reserve(10000);
+		assertEquals(10000, range.size());
+		assertEquals(10001, ig1.getGlobalCounter());
+		long[] ids = range.toArray();
+		for (long id : ids) {
+			assertTrue(prev < id);
+			assertEquals(1001, ig1.parse(id).hostId());
+			prev = id;
+		}
+		assertTrue(prev < ig1.getId());
+		assertArrayEquals(ids, range.stream().toArray());
+		assertEquals(ids[9999], range.get(9999));
+	}
+
+	@Test
+	public void reserveMultiThreadTest() throws InterruptedException {
+		final int threadCount = 8;
+		final int batches = 20;
+		var ig1 = DecimalIdGenerator.idGenerator_10x8();
+		ig1.setConcurrencyMode(ConcurrencyMode.LOCK_FREE);
+		ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+		CountDownLatch latch = new CountDownLatch(threadCount);
+		Set<Long> allResults = ConcurrentHashMap.newKeySet();
+		for (int i = 0; i < threadCount; i++) {
+			executorService.execute(() -> {
+				for (int j = 0; j < batches; j++) {
+					ig1.reserve(10000).forEachId(allResults::add);
+				}
+				latch.countDown();
+			});
+		}
+		assertTrue(latch.await(10, TimeUnit.MINUTES));
+		assertEquals(threadCount*batches*10000, allResults.size());
+		assertEquals(threadCount*batches*10000, ig1.getGlobalCounter());
+	}
+
+	@Test
+	public void defaultReserveTest() {
+		var ig1 = DecimalIdGenerator.idGenerator_10x8();
+		IdSource source = ig1::getId;
+		IdRange range = source.reserve(100);
+		assertEquals(100, range.size());
+		assertEquals(100, range.stream().distinct().count());
+	}
+
+	@Test
+	public void waitStrategyTest() {
+		for (WaitStrategy waitStrategy : new WaitStrategy[]{WaitStrategy.spin, WaitStrategy.yield, WaitStrategy.park, WaitStrategy.sleep}) {
+			var ig1 = DecimalIdGenerator.idGenerator_10x4x5(1001);
+			ig1.setWaitStrategy(waitStrategy);
+			final long start = currentTimeMillis();
+			final long secondStart = (start / 1000 + 1) * 1000;
+			ig1.setTimestampSupplier(()-> secondStart + currentTimeMillis() - start); // throttled from the first ms
+			long prev = 0;
+			for (int i = 0; i < 20000; i++) {
+				long next = ig1.getId();
+				assertTrue(prev < next);
+				prev = next;
+			}
+			var metrics = ig1.getMetrics();
+			assertEquals(20000, metrics.getIssuedIds());
+			assertTrue(waitStrategy + " " + metrics, metrics.getSaturations() > 0);
+			assertTrue(waitStrategy + " " + metrics, metrics.getWaits() > 0);
+			assertTrue(waitStrategy + " " + metrics, metrics.getWaitNanos() > 0);
+		}
+	}
+
+	@Test
+	public void pacingPolicyTest() {
+		final long secondStart = (currentTimeMillis() / 1000 + 2) * 1000;
+		var linear = DecimalIdGenerator.idGenerator_10x4x5(1001);
+		linear.setTimestampSupplier(() -> secondStart + 10);
+		assertEquals(PacingPolicy.linear, linear.getPacingPolicy());
+		assertEquals(10 * linear.maxIdPerMSec + 1, linear.reserveAvailable(100000).size());
+
+		var burst = DecimalIdGenerator.idGenerator_10x4x5(1001);
+		burst.setPacingPolicy(PacingPolicy.linearWithBurst(100));
+		burst.setTimestampSupplier(() -> secondStart);
+		// a burst at the first millisecond of the second is served from the headroom at once
+		assertEquals(100 * burst.maxIdPerMSec + 1, burst.reserveAvailable(100000).size());
+		assertEquals(0, burst.getMetrics().getWaits());
+		burst.setTimestampSupplier(() -> secondStart + 10);
+		assertEquals(10 * burst.maxIdPerMSec, burst.reserveAvailable(100000).size());
+		// the per second ceiling holds
+		burst.setTimestampSupplier(() -> secondStart + 990);
+		assertEquals(burst.maxId - 110 * burst.maxIdPerMSec, burst.reserveAvailable(100000).size());
+	}
+
+	@Test(expected = IdSourceException.class)
+	public void linearWithBurstExceptionTest() {
+		PacingPolicy.linearWithBurst(-1);
+	}
+
+	@Test
+	public void lookaheadTest() {
+		var ig1 = DecimalIdGenerator.idGenerator_10x4x5(1001);
+		ig1.setMaxLookaheadSec(2);
+		long prev = 0;
+		long maxLead = 0;
+		// a bit less than three seconds of IDs: the current second and two borrowed ones
+		for (int i = 0; i < 250000; i++) {
+			long next = ig1.getId();
+			assertTrue(prev < next);
+			prev = next;
+			maxLead = Math.max(maxLead, ig1.getLeadSec());
+		}
+		assertTrue(maxLead <= 2);
+	}
+
+	@Test
+	public void lookaheadBoundTest() {
+		final long secondStart = (currentTimeMillis() / 1000 + 1) * 1000;
+		var ig1 = DecimalIdGenerator.idGenerator_10x4x5(1001);
+		ig1.setMaxLookaheadSec(2);
+		AtomicLong reads = new AtomicLong();
+		// time moves by 1 ms every 3 clock reads, while every claim asks for half a second of IDs
+		ig1.setTimestampSupplier(() -> secondStart + reads.getAndIncrement() / 3);
+		long maxLead = 0;
+		long prev = 0;
+		for (int i = 0; i < 16; i++) {
+			IdRange range = ig1.reserveAvailable(50000);
+			assertTrue(prev < range.get(0));
+			prev = range.get(range.size() - 1);
+			maxLead = Math.max(maxLead, ig1.getLeadSec());
+		}
+		assertEquals(2, maxLead);
+		assertTrue(ig1.getMetrics().getWaits() > 0);
+		assertEquals(0, ig1.getMetrics().getPastShiftEpisodes());
+	}
+
+	@Test
+	public void lookaheadUsesCurrentSecondFirstTest() {
+		final long secondStart = (currentTimeMillis() / 1000 + 1) * 1000;
+		var ig1 = DecimalIdGenerator.idGenerator_10x4x5(1001);
+		ig1.setMaxLookaheadSec(2);
+		ig1.setTimestampSupplier(() -> secondStart);
+		for (int i = 0; i < 1000; i++) {
+			ig1.getId();
+		}
+		assertEquals(0, ig1.getLeadSec());
+		assertEquals(secondStart / 1000, ig1.getCurrentTimeStampSec());
+		ig1.reserve((int) ig1.maxId);
+		assertEquals(1, ig1.getLeadSec());
+	}
+
+	@Test
+	public void virtualThreadsTest() {
+		final int threadCount = 10000;
+		final int iterationsPerThread = 100;
+		for (ConcurrencyMode mode : ConcurrencyMode.values()) {
+			var ig1 = DecimalIdGenerator.idGenerator_10x8();
+			ig1.setConcurrencyMode(mode);
+			Set<Long> allResults = ConcurrentHashMap.newKeySet(threadCount * iterationsPerThread);
+			AtomicLong outOfOrder = new AtomicLong();
+			try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+				for (int i = 0; i < threadCount; i++) {
+					executorService.execute(() -> {
+						long prev = 0;
+						for (int j = 0; j < iterationsPerThread; j++) {
+							long id = ig1.getId();
+							if (id <= prev) {
+								outOfOrder.incrementAndGet();
+							}
+							prev = id;
+							allResults.add(id);
+						}
+					});
+				}
+			}
+			assertEquals(threadCount * iterationsPerThread, allResults.size());
+			assertEquals(0, outOfOrder.get());
+			assertEquals(threadCount * iterationsPerThread, ig1.getMetrics().getIssuedIds());
+		}
+	}
+
 	@Test
 	public void testStream() {
 		LongStream stream = DecimalIdGenerator.idGenerator_10x4x5(1001).asStream();
 		stream.limit(10).forEach(System.out::println);
 	}
 
+	@Test
+	public void parallelSizedStreamTest() {
+		var ig1 = DecimalIdGenerator.idGenerator_10x8();
+		ig1.setConcurrencyMode(ConcurrencyMode.LOCK_FREE);
+		long[] ids = ig1.asStream(1_000_000).parallel().toArray();
+		assertEquals(1_000_000, ids.length);
+		for (int i = 1; i < ids.length; i++) {
+			assertTrue(ids[i - 1] < ids[i]);
+		}
+		assertEquals(1_000_000, ig1.getGlobalCounter());
+		assertEquals(5, ig1.asStream(5).toArray().length);
+		assertEquals(0, ig1.asStream(0).count());
+		var spliterator = ig1.asStream(10_000).spliterator();
+		var prefix = spliterator.trySplit();
+		assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED));
+		assertEquals(5_000, prefix.estimateSize());
+		assertEquals(5_000, spliterator.getExactSizeIfKnown());
+		assertEquals(1_005_005, ig1.getGlobalCounter());
+		long[] tail = new long[1];
+		spliterator.forEachRemaining((long id) -> tail[0] = id);
+		prefix.forEachRemaining((long id) -> assertTrue(id < tail[0]));
+		assertEquals(1_010_005, ig1.getGlobalCounter());
+	}
+
+	@Test
+	public void sizedStreamBlockTest() {
+		var ig = DecimalIdGenerator.idGenerator_10x4x5(1);
+		assertEquals(100_000, ig.maxBlockSize());
+		var spliterator = ig.asStream(1_000_000).spliterator();
+		assertTrue(spliterator.tryAdvance((long id) -> {}));
+		assertEquals(100_000, ig.getGlobalCounter());
+		assertEquals(999_999, spliterator.estimateSize());
+	}
+
 	@Test(expected = IdSourceException.class)
 	public void testHostIdExeption() {
 		DecimalIdGenerator.idGenerator_10x4x5(10010);
@@ -271,6 +551,44 @@ public class DecimalIdGeneratorTest {
 
 	}
 
+	@Test
+	public void bulkParseTest() {
+		for (var ig : new DecimalIdGenerator[]{
+				DecimalIdGenerator.idGenerator_10x4x5(1001),
+				DecimalIdGenerator.idGenerator_10x8(7),
+				new DecimalIdGenerator(0, unixTimestamp(), 9, 0)}) {
+			long[] ids = ig.reserve(5000).toArray();
+			ids[0] = 123456789L; // below 10^18
+			assertBulkParse(ig, ids);
+			ig.setTimeTransformer(TimeTransformer.adjustedEpoch);
+			assertBulkParse(ig, ig.reserve(100).toArray());
+		}
+	}
+
+	static void assertBulkParse(AbstractIdGenerator ig, long[] ids) {
+		long[] timestamps = new long[ids.length];
+		int[] hostIds = new int[ids.length];
+		long[] currentIds = new long[ids.length];
+		ig.parse(ids, timestamps, hostIds, currentIds);
+		for (int i = 0; i < ids.length; i++) {
+			var parts = ig.parse(ids[i]);
+			assertEquals(parts.timestamp(), timestamps[i]);
+			assertEquals(parts.hostId(), hostIds[i]);
+			assertEquals(parts.currentId(), currentIds[i]);
+			assertEquals(parts.timestamp(), ig.timestampOf(ids[i]));
+			assertEquals(parts.hostId(), ig.hostIdOf(ids[i]));
+			assertEquals(parts.currentId(), ig.counterOf(ids[i]));
+		}
+		var direct = ByteBuffer.allocateDirect(ids.length * Long.BYTES).asLongBuffer().put(ids).flip();
+		int[] directHostIds = new int[ids.length];
+		ig.parse(direct, null, directHostIds, null);
+		assertArrayEquals(hostIds, directHostIds);
+		assertEquals(0, direct.position());
+		long[] heapCurrentIds = new long[ids.length - 1];
+		ig.parse(LongBuffer.wrap(ids).position(1), null, null, heapCurrentIds);
+		assertArrayEquals(Arrays.copyOfRange(currentIds, 1, ids.length), heapCurrentIds);
+	}
+
 	private IdParts getParts(int hostId, int idPos, int hostIdPos) {
 		long timestamp = unixTimestamp();
 		var ig = new DecimalIdGenerator(hostId,timestamp,idPos,hostIdPos);
@@ -0,0 +1,90 @@
+package com.aegisql.id_builder.impl;
+
+import com.aegisql.id_builder.IdSourceException;
+import com.aegisql.id_builder.TimeTransformer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.aegisql.id_builder.utils.Utils.unixTimestamp;
+import static org.junit.Assert.*;
+
+public class IdCheckpointTest {
+
+    @Test
+    public void restartAfterClockStepBackTest() throws IOException {
+        Path file = Files.createTempFile("id-checkpoint", ".bin");
+        file.toFile().deleteOnExit();
+        long start = unixTimestamp() - 100;
+
+        var ig1 = DecimalIdGenerator.idGenerator_10x4x5(1001, start);
+        ig1.setCheckpoint(IdCheckpoint.open(file, 1000, false));
+        long last = 0;
+        for (int i = 0; i < 5000; i++) {
+            last = ig1.getId();
+        }
+        var checkpoint = IdCheckpoint.open(file, 1000, false);
+        assertTrue(checkpoint.isInitialized());
+        var lastParts = ig1.parse(last);
+        assertTrue(checkpoint.getTimeStampSec() > lastParts.timestamp()
+                || checkpoint.getTimeStampSec() == lastParts.timestamp() && checkpoint.getCurrentId() >= lastParts.currentId());
+
+        // restart with the clock stepped back by a minute
+        var ig2 = DecimalIdGenerator.idGenerator_10x4x5(1001, start);
+        ig2.setTimestampSupplier(() -> System.currentTimeMillis() - 60_000);
+        ig2.setCheckpoint(checkpoint);
+        long first = ig2.getId();
+        assertTrue(last < first);
+        for (int i = 0; i < 100; i++) {
+            long next = ig2.getId();
+            assertTrue(first < next);
+            first = next;
+        }
+    }
+
+    @Test
+    public void forcedChunksTest() throws IOException {
+        Path file = Files.createTempFile("id-checkpoint", ".bin");
+        file.toFile().deleteOnExit();
+        var ig = DecimalIdGenerator.idGenerator_10x8(1);
+        ig.setConcurrencyMode(ConcurrencyMode.LOCK_FREE);
+        var checkpoint = IdCheckpoint.open(file, 10_000, true);
+        ig.setCheckpoint(checkpoint);
+        var range = ig.reserve(25_000);
+        long last = range.get(range.size() - 1);
+        var parts = ig.parse(last);
+        assertTrue(checkpoint.getTimeStampSec() > parts.timestamp()
+                || checkpoint.getTimeStampSec() == parts.timestamp() && checkpoint.getCurrentId() >= parts.currentId());
+        assertSame(checkpoint, ig.getCheckpoint());
+    }
+
+    @Test(expected = IdSourceException.class)
+    public void layoutMismatchTest() throws IOException {
+        Path file = Files.createTempFile("id-checkpoint", ".bin");
+        file.toFile().deleteOnExit();
+        DecimalIdGenerator.idGenerator_10x8(1).setCheckpoint(IdCheckpoint.open(file, 100, false));
+        DecimalIdGenerator.idGenerator_10x4x5(1).setCheckpoint(IdCheckpoint.open(file, 100, false));
+    }
+
+    @Test(expected = IdSourceException.class)
+    public void tickMismatchTest() throws IOException {
+        Path file = Files.createTempFile("id-checkpoint", ".bin");
+        file.toFile().deleteOnExit();
+        NanoClock clock = NanoClock.anchored();
+        new SubMillisecondIdGenerator(clock, 5, 0, 4, 8).setCheckpoint(IdCheckpoint.open(file, 100, false));
+        new SubMillisecondIdGenerator(clock, 10, 0, 4, 8).setCheckpoint(IdCheckpoint.open(file, 100, false));
+    }
+
+    @Test(expected = IdSourceException.class)
+    public void epochMismatchTest() throws IOException {
+        Path file = Files.createTempFile("id-checkpoint", ".bin");
+        file.toFile().deleteOnExit();
+        DecimalIdGenerator.idGenerator_10x8(1).setCheckpoint(IdCheckpoint.open(file, 100, false));
+        var ig = DecimalIdGenerator.idGenerator_10x8(1);
+        ig.setTimeTransformer(TimeTransformer.adjustedEpoch);
+        ig.setCheckpoint(IdCheckpoint.open(file, 100, false));
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.aegisql.id_builder.impl;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.lang.System.currentTimeMillis;
+import static org.junit.Assert.*;
+
+public class IdGeneratorEventsTest {
+
+    private static List<RecordedEvent> record(Runnable runnable) throws Exception {
+        Path file = Files.createTempFile("id-builder", ".jfr");
+        file.toFile().deleteOnExit();
+        try (Recording recording = new Recording()) {
+            recording.enable("com.aegisql.id_builder.ThrottleWait");
+            recording.enable("com.aegisql.id_builder.Saturation");
+            recording.enable("com.aegisql.id_builder.ClockStepBack");
+            recording.enable("com.aegisql.id_builder.ClockRecovery");
+            recording.start();
+            runnable.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static long count(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).count();
+    }
+
+    @Test
+    public void throttleEventsTest() throws Exception {
+        var ig = DecimalIdGenerator.idGenerator_10x4x5(1001);
+        var events = record(() -> {
+            final long start = currentTimeMillis();
+            final long secondStart = (start / 1000 + 1) * 1000;
+            ig.setTimestampSupplier(() -> secondStart + currentTimeMillis() - start); // throttled from the first ms
+            for (int i = 0; i < 5000; i++) {
+                ig.getId();
+            }
+        });
+        assertTrue(count(events, "com.aegisql.id_builder.Saturation") > 0);
+        assertEquals(ig.getMetrics().getSaturations(), count(events, "com.aegisql.id_builder.ThrottleWait"));
+        var wait = events.stream().filter(e -> e.getEventType().getName().equals("com.aegisql.id_builder.ThrottleWait")).findFirst().orElseThrow();
+        assertEquals(ig.getLayout(), wait.getString("layout"));
+        assertEquals(1001, wait.getLong("hostId"));
+        assertEquals(1, wait.getLong("claimedIds"));
+        assertFalse(wait.getDuration().isNegative());
+    }
+
+    @Test
+    public void clockStepBackEventsTest() throws Exception {
+        var ig = DecimalIdGenerator.idGenerator_10x8(7);
+        var events = record(() -> {
+            final long now = currentTimeMillis();
+            ig.setTimestampSupplier(() -> {
+                long timestamp = currentTimeMillis();
+                long elapsed = timestamp - now;
+                return elapsed < 200 || elapsed > 1300 ? timestamp : timestamp - 1000;
+            });
+            while (currentTimeMillis() - now < 2500) {
+                ig.getId();
+            }
+        });
+        assertEquals(1, count(events, "com.aegisql.id_builder.ClockStepBack"));
+        assertEquals(1, count(events, "com.aegisql.id_builder.ClockRecovery"));
+        var stepBack = events.stream().filter(e -> e.getEventType().getName().equals("com.aegisql.id_builder.ClockStepBack")).findFirst().orElseThrow();
+        assertEquals(7, stepBack.getLong("hostId"));
+        assertTrue(stepBack.getLong("generatorTimeStampSec") > stepBack.getLong("clockTimeStampSec"));
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.aegisql.id_builder.impl;
+
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.lang.System.currentTimeMillis;
+import static org.junit.Assert.*;
+
+public class IdGeneratorMetricsTest {
+
+    @Test
+    public void saturationTest() {
+        var ig = DecimalIdGenerator.idGenerator_10x4x5(1001);
+        final long start = currentTimeMillis();
+        final long secondStart = (start / 1000 + 1) * 1000;
+        ig.setTimestampSupplier(() -> secondStart + currentTimeMillis() - start); // throttled from the first ms
+        for (int i = 0; i < 5000; i++) {
+            ig.getId();
+        }
+        var metrics = ig.getMetrics();
+        System.out.println(metrics);
+        assertEquals(5000, metrics.getIssuedIds());
+        assertTrue(metrics.getSaturations() > 0);
+        assertTrue(metrics.getWaits() >= metrics.getSaturations());
+        assertTrue(metrics.getWaitNanos() > 0);
+        assertEquals(0, metrics.getPastShiftEpisodes());
+    }
+
+    @Test
+    public void pastShiftTest() {
+        var ig = DecimalIdGenerator.idGenerator_10x4x5(1001);
+        final long now = currentTimeMillis();
+        ig.setTimestampSupplier(() -> {
+            long timestamp = currentTimeMillis();
+            return timestamp - now < 200 ? timestamp : timestamp - 2000;
+        });
+        while (currentTimeMillis() - now < 400) {
+            ig.getId();
+        }
+        var metrics = ig.getMetrics();
+        System.out.println(metrics);
+        assertEquals(1, metrics.getPastShiftEpisodes());
+        assertTrue(metrics.getLeadSec() > 0);
+        assertTrue(metrics.getWaits() > 0);
+    }
+
+    @Test
+    public void concurrentPastShiftTest() throws InterruptedException {
+        for (ConcurrencyMode mode : ConcurrencyMode.values()) {
+            var ig = DecimalIdGenerator.idGenerator_10x4x5(1001);
+            ig.setConcurrencyMode(mode);
+            AtomicBoolean steppedBack = new AtomicBoolean();
+            AtomicBoolean done = new AtomicBoolean();
+            ig.setTimestampSupplier(() -> steppedBack.get() ? currentTimeMillis() - 2000 : currentTimeMillis());
+            Thread[] threads = new Thread[8];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    while (!done.get()) {
+                        ig.getId();
+                    }
+                });
+                threads[t].start();
+            }
+            // step the clock back while all threads claim, then let them claim ahead of it for a while
+            awaitIssued(ig, 1000);
+            steppedBack.set(true);
+            awaitIssued(ig, ig.getGlobalCounter() + 1000);
+            done.set(true);
+            for (Thread thread : threads) {
+                thread.join(10_000);
+            }
+            assertEquals(mode.toString(), 1, ig.getMetrics().getPastShiftEpisodes());
+        }
+    }
+
+    private static void awaitIssued(AbstractIdGenerator ig, long issued) throws InterruptedException {
+        long deadline = currentTimeMillis() + 10_000;
+        while (ig.getGlobalCounter() < issued) {
+            assertTrue(currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void aheadWithoutStepBackTest() {
+        var ig = DecimalIdGenerator.idGenerator_10x4x5(1001);
+        // restored ahead of the clock, e.g. from the last ID of a generator with a faster clock
+        ig.resetState(currentTimeMillis() / 1000 + 5, 0);
+        for (int i = 0; i < 1000; i++) {
+            ig.getId();
+        }
+        var metrics = ig.getMetrics();
+        assertEquals(1000, metrics.getIssuedIds());
+        assertEquals(0, metrics.getPastShiftEpisodes());
+        assertTrue(metrics.getLeadSec() >= 4);
+    }
+
+    @Test
+    public void contentionTest() throws InterruptedException {
+        var ig = DecimalIdGenerator.idGenerator_10x8();
+        ig.setConcurrencyMode(ConcurrencyMode.LOCK);
+        CountDownLatch inClock = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread[] holder = new Thread[1];
+        // the first clock read of the holder blocks while it holds the lock
+        ig.setTimestampSupplier(() -> {
+            if (Thread.currentThread() == holder[0] && inClock.getCount() > 0) {
+                inClock.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return currentTimeMillis();
+        });
+        holder[0] = new Thread(ig::getId);
+        holder[0].start();
+        assertTrue(inClock.await(10, TimeUnit.SECONDS));
+        Thread claimer = new Thread(ig::getId);
+        claimer.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (claimer.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        holder[0].join(10_000);
+        claimer.join(10_000);
+        assertEquals(2, ig.getMetrics().getIssuedIds());
+        assertEquals(1, ig.getMetrics().getContentions());
+    }
+
+    @Test
+    public void mbeanTest() throws Exception {
+        var ig = DecimalIdGenerator.idGenerator_10x8();
+        ig.reserve(100);
+        ObjectName name = ig.getMetrics().registerMBean("test-generator");
+        try {
+            var server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(100L, server.getAttribute(name, "IssuedIds"));
+            assertEquals(0L, server.getAttribute(name, "Saturations"));
+        } finally {
+            ig.getMetrics().unregisterMBean();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+}
@@ -0,0 +1,189 @@
+package com.aegisql.id_builder.impl;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class IdPublisherTest {
+
+    static class TestSubscriber<T> implements Flow.Subscriber<T> {
+        final List<T> items = new CopyOnWriteArrayList<>();
+        final CountDownLatch done;
+        final long firstRequest;
+        volatile Flow.Subscription subscription;
+        volatile Throwable error;
+
+        TestSubscriber(int expected, long firstRequest) {
+            this.done = new CountDownLatch(expected);
+            this.firstRequest = firstRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(firstRequest);
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+            done.countDown();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            while (done.getCount() > 0) {
+                done.countDown();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    /**
+     * Runs tasks on virtual threads and tells when all of them finished. A drain task exits only when
+     * the demand is served, so an idle executor delivers nothing until the next request.
+     */
+    static class TrackingExecutor implements Executor {
+        final AtomicInteger running = new AtomicInteger();
+
+        @Override
+        public void execute(Runnable task) {
+            running.incrementAndGet();
+            Thread.ofVirtual().start(() -> {
+                try {
+                    task.run();
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+        }
+
+        void awaitIdle() throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (running.get() > 0) {
+                assertTrue("drain task did not finish", System.currentTimeMillis() < deadline);
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    @Test
+    public void demandTest() throws InterruptedException {
+        var ig = DecimalIdGenerator.idGenerator_10x4x5(1001);
+        var executor = new TrackingExecutor();
+        var publisher = new IdPublisher(ig, 100, executor);
+        var subscriber = new TestSubscriber<Long>(5000, 10);
+        publisher.subscribe(subscriber);
+        executor.awaitIdle();
+        assertEquals(10, subscriber.items.size());
+        subscriber.subscription.request(4990);
+        assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+        executor.awaitIdle();
+        assertEquals(5000, subscriber.items.size());
+        assertEquals(5000, Set.copyOf(subscriber.items).size());
+        long prev = 0;
+        for (long id : subscriber.items) {
+            assertTrue(prev < id);
+            prev = id;
+        }
+    }
+
+    @Test
+    public void batchTest() throws InterruptedException {
+        var ig = DecimalIdGenerator.idGenerator_10x8();
+        var publisher = new IdBatchPublisher(ig, 1000);
+        var subscriber = new TestSubscriber<long[]>(100, 100);
+        publisher.subscribe(subscriber);
+        assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        for (long[] chunk : subscriber.items) {
+            assertEquals(1000, chunk.length);
+            for (long id : chunk) {
+                assertTrue(ids.add(id));
+            }
+        }
+        assertEquals(100000, ids.size());
+    }
+
+    @Test
+    public void cancelTest() throws InterruptedException {
+        var ig = DecimalIdGenerator.idGenerator_10x4x5(1001);
+        var executor = new TrackingExecutor();
+        var publisher = new IdPublisher(ig, 1024, executor);
+        var subscriber = new TestSubscriber<Long>(1, Long.MAX_VALUE);
+        publisher.subscribe(subscriber);
+        assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+        subscriber.subscription.cancel();
+        executor.awaitIdle();
+        int size = subscriber.items.size();
+        subscriber.subscription.request(10);
+        assertEquals(0, executor.running.get());
+        assertEquals(size, subscriber.items.size());
+    }
+
+    @Test
+    public void badRequestTest() throws InterruptedException {
+        var publisher = new IdPublisher(DecimalIdGenerator.idGenerator_10x8());
+        var subscriber = new TestSubscriber<Long>(1, 0);
+        publisher.subscribe(subscriber);
+        assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void badRequestSerializedTest() throws InterruptedException {
+        var executor = new TrackingExecutor();
+        var publisher = new IdPublisher(DecimalIdGenerator.idGenerator_10x8(), 100, executor);
+        AtomicBoolean inOnNext = new AtomicBoolean();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        AtomicInteger afterError = new AtomicInteger();
+        var subscriber = new TestSubscriber<Long>(1, Long.MAX_VALUE) {
+            @Override
+            public void onNext(Long item) {
+                if (error != null) {
+                    afterError.incrementAndGet();
+                }
+                inOnNext.set(true);
+                if (items.size() == 10) {
+                    subscription.request(-1);
+                    try {
+                        Thread.sleep(50); // the old code delivered onError from another thread here
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                items.add(item);
+                inOnNext.set(false);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                overlapped.set(inOnNext.get());
+                super.onError(throwable);
+            }
+        };
+        publisher.subscribe(subscriber);
+        assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+        executor.awaitIdle();
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertFalse(overlapped.get());
+        assertEquals(0, afterError.get());
+        assertEquals(11, subscriber.items.size());
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.aegisql.id_builder.impl;
+
+import com.aegisql.id_builder.IdSourceException;
+import com.aegisql.id_builder.TimeTransformer;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LayoutPlannerTest {
+
+    @Test
+    public void recommendTest() {
+        var requirements = new LayoutPlanner.Requirements(50_000, 200_000, 100, 20);
+        var plan = LayoutPlanner.plan(requirements);
+        var recommended = plan.recommended().orElseThrow();
+        System.out.println(recommended);
+        assertTrue(recommended.maxIdPerMSec() >= 200);
+        assertTrue(recommended.maxHosts() >= 100);
+        assertTrue(recommended.exhaustion().atZone(ZoneOffset.UTC).getYear() >= Instant.now().atZone(ZoneOffset.UTC).getYear() + 20);
+
+        var decimal = plan.recommended(LayoutPlanner.Kind.DECIMAL).orElseThrow();
+        System.out.println(decimal);
+        assertEquals(7, decimal.idPositions());
+        assertEquals(3, decimal.hostPositions());
+        assertTrue(decimal.adjustedEpoch());
+
+        var ig = decimal.build(99);
+        assertEquals(decimal.maxIdPerMSec(), ig.maxIdPerMSec);
+        long id = ig.getId();
+        var parts = ig.parse(id);
+        assertEquals(99, parts.hostId());
+        assertEquals(System.currentTimeMillis() / 1000, parts.timestamp(), 1);
+
+        var binary = plan.recommended(LayoutPlanner.Kind.BINARY).orElseThrow().build(99);
+        assertEquals(99, binary.parse(binary.getId()).hostId());
+    }
+
+    @Test
+    public void tenByFourByFiveTest() {
+        var plan = LayoutPlanner.plan(new LayoutPlanner.Requirements(90_000, 90_000, 9_000, 100));
+        var decimal = plan.recommended(LayoutPlanner.Kind.DECIMAL).orElseThrow();
+        assertEquals(5, decimal.idPositions());
+        assertEquals(4, decimal.hostPositions());
+        assertFalse(decimal.adjustedEpoch());
+        assertEquals(2262, decimal.identityExhaustion().atZone(ZoneOffset.UTC).getYear());
+        var ig = decimal.build(1001);
+        assertSame(TimeTransformer.identity, ig.tf);
+    }
+
+    @Test
+    public void impossibleTest() {
+        var plan = LayoutPlanner.plan(new LayoutPlanner.Requirements(1_000_000_000, 1_000_000_000, 1_000, 50));
+        assertTrue(plan.recommended().isEmpty());
+        assertFalse(plan.layouts().isEmpty());
+        assertFalse(plan.layouts().get(0).violations().isEmpty());
+    }
+
+    @Test(expected = IdSourceException.class)
+    public void badRequirementsTest() {
+        new LayoutPlanner.Requirements(1000, 10, 1, 1);
+    }
+
+    @Test
+    public void burstWindowTest() {
+        var plan = LayoutPlanner.plan(new LayoutPlanner.Requirements(50_000, 200_000, 100, 100, 20));
+        var recommended = plan.recommended().orElseThrow();
+        assertTrue(recommended.maxIdPerMSec() >= 2_000);
+        var sixDigits = plan.layouts().stream()
+                .filter(l -> l.kind() == LayoutPlanner.Kind.DECIMAL && l.idPositions() == 6 && l.hostPositions() == 3)
+                .findFirst().orElseThrow();
+        assertEquals(List.of("burst rate"), sixDigits.violations());
+    }
+
+    @Test(expected = IdSourceException.class)
+    public void badBurstWindowTest() {
+        new LayoutPlanner.Requirements(1000, 1000, 0, 1, 1);
+    }
+
+    @Test
+    public void mainTest() {
+        PrintStream out = System.out;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(buffer));
+        try {
+            LayoutPlanner.main(new String[]{"--sustained", "50000", "--burst", "200000", "--hosts", "100", "--years", "20", "--kind", "decimal"});
+        } finally {
+            System.setOut(out);
+        }
+        String printed = buffer.toString();
+        assertTrue(printed.startsWith("Requirements[sustainedPerSec=50000, burstPerSec=200000, burstWindowMSec=1000, hosts=100, lifetimeYears=20]"));
+        assertTrue(printed.contains("Recommended: decimal idPos=7 hostIdPos=3"));
+        assertFalse(printed.contains("binary"));
+        assertFalse(printed.contains("violates"));
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.aegisql.id_builder.impl;
+
+import com.aegisql.id_builder.IdParts;
+import com.aegisql.id_builder.IdSourceException;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class MillisecondIdGeneratorTest {
+
+    @Test
+    public void basicIdTest() {
+        MillisecondIdGenerator ig = new MillisecondIdGenerator(5, 8);
+        AtomicLong prev = new AtomicLong();
+        ig.asStream().limit(1000000).forEach(id -> {
+            assertTrue(prev.get() < id);
+            assertEquals(5, ig.hostIdOf(id));
+            prev.set(id);
+        });
+        assertEquals(System.currentTimeMillis(), ig.timestampOf(prev.get()), 1000);
+    }
+
+    @Test
+    public void burstAtStartOfSecondTest() {
+        // clock frozen at the first millisecond of a second: a second generator would hand out one ID only
+        long startMs = 1_800_000_000_000L;
+        MillisecondIdGenerator ig = new MillisecondIdGenerator(startMs, 1, 4, 10);
+        ig.setTimestampSupplier(() -> startMs + 1000);
+        var range = ig.reserveAvailable(1024);
+        assertEquals(1024, range.size());
+        assertEquals(0, ig.getMetrics().getWaits());
+        IdParts first = ig.parse(range.getSegments().get(0).firstId());
+        assertEquals(startMs + 1000, first.timestamp());
+        assertEquals(0, first.currentId());
+        assertEquals(1, first.hostId());
+        assertEquals(TimeUnit.MILLISECONDS, first.timeUnit());
+        assertEquals(startMs + 1000, first.getIdDateTime().getTime());
+    }
+
+    @Test
+    public void parseTest() {
+        long nowMs = System.currentTimeMillis();
+        MillisecondIdGenerator ig = new MillisecondIdGenerator(nowMs, 3, 6, 12);
+        long id = ig.buildId(nowMs + 7, 100);
+        IdParts parts = ig.parse(id);
+        assertEquals(nowMs + 7, parts.timestamp());
+        assertEquals(3, parts.hostId());
+        assertEquals(100, parts.currentId());
+        assertEquals(nowMs + 7, ig.timestampOf(id));
+        DecimalIdGeneratorTest.assertBulkParse(ig, ig.asStream().limit(10000).toArray());
+    }
+
+    @Test
+    public void fromLastKnownIdTest() {
+        MillisecondIdGenerator ig = new MillisecondIdGenerator(9, 5);
+        long lastId = ig.asStream().limit(100000).max().orElseThrow();
+        MillisecondIdGenerator restored = MillisecondIdGenerator.fromLastKnownId(lastId, 5, MillisecondIdGenerator.DEFAULT_SEQUENCE_BITS);
+        assertEquals(9, restored.getHostId());
+        assertEquals(ig.parse(lastId).timestamp(), restored.getCurrentTimeStampSec());
+        for (int i = 0; i < 100000; i++) {
+            assertTrue(restored.getId() > lastId);
+        }
+    }
+
+    @Test
+    public void concurrentUniquenessTest() throws InterruptedException {
+        MillisecondIdGenerator ig = new MillisecondIdGenerator(0, 0);
+        ig.setConcurrencyMode(ConcurrencyMode.LOCK_FREE);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    ids.add(ig.getId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(400000, ids.size());
+    }
+
+    @Test(expected = IdSourceException.class)
+    public void testHostIdException() {
+        new MillisecondIdGenerator(16, 4);
+    }
+
+    @Test(expected = IdSourceException.class)
+    public void testTooManyBitsException() {
+        new MillisecondIdGenerator(System.currentTimeMillis(), 0, 20, 12);
+    }
+
+    @Test(expected = IdSourceException.class)
+    public void testShortTimestampException() {
+        // 35 bits of milliseconds since the adjusted epoch are already full
+        new MillisecondIdGenerator(System.currentTimeMillis(), 0, 16, 12);
+    }
+}
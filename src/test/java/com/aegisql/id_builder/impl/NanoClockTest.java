@@ -0,0 +1,134 @@
+package com.aegisql.id_builder.impl;
+
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.System.currentTimeMillis;
+import static org.junit.Assert.*;
+
+public class NanoClockTest {
+
+    private static Clock wallClock(AtomicLong wallNanos) {
+        return new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochSecond(0, wallNanos.get());
+            }
+        };
+    }
+
+    @Test
+    public void systemClockTest() throws InterruptedException {
+        NanoClock clock = NanoClock.anchored(10);
+        long prev = 0;
+        for (int i = 0; i < 10; i++) {
+            long nanos = clock.nanos();
+            assertTrue(prev <= nanos);
+            prev = nanos;
+            long diff = currentTimeMillis() - clock.getAsLong();
+            assertTrue(diff >= -2 && diff < 50);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void reanchorNeverMovesBackTest() {
+        AtomicLong wall = new AtomicLong(1_000_000_000_000L);
+        AtomicLong nanoTime = new AtomicLong(0);
+        NanoClock clock = new NanoClock(wallClock(wall), nanoTime::get, 1, 0);
+        nanoTime.set(500_000);
+        wall.addAndGet(500_000);
+        assertEquals(1_000_000_500_000L, clock.nanos());
+        // wall clock steps forward: followed at the next re-anchoring
+        nanoTime.set(1_000_000);
+        wall.addAndGet(2_000_000);
+        assertEquals(1_000_002_500_000L, clock.nanos());
+        // wall clock steps back: time is held until the wall clock catches up
+        nanoTime.set(2_000_000);
+        wall.addAndGet(-1_500_000);
+        assertEquals(1_000_003_500_000L, clock.nanos());
+        nanoTime.set(2_500_000);
+        wall.addAndGet(500_000);
+        assertEquals(1_000_003_500_000L, clock.nanos());
+        nanoTime.set(3_500_000);
+        wall.addAndGet(1_000_000);
+        assertEquals(1_000_003_500_000L, clock.nanos());
+        nanoTime.set(4_600_000);
+        wall.addAndGet(2_100_000);
+        assertEquals(1_000_004_600_000L, clock.nanos());
+        nanoTime.set(4_700_000);
+        assertEquals(1_000_004_700_000L, clock.nanos());
+    }
+
+    @Test
+    public void slewingNeverStepsTest() {
+        AtomicLong wall = new AtomicLong(1_000_000_000_000L);
+        AtomicLong nanoTime = new AtomicLong(0);
+        NanoClock clock = new NanoClock(wallClock(wall), nanoTime::get, 10, 100_000);
+        assertTrue(clock.isSlewing());
+        long prev = clock.nanos();
+        long maxDrift = 0;
+        for (long t = 1_000_000; t <= 40_000_000; t += 1_000_000) {
+            nanoTime.set(t);
+            // wall clock stepped back by 2 ms at 10 ms
+            wall.set(1_000_000_000_000L + t - (t >= 10_000_000 ? 2_000_000 : 0));
+            long nanos = clock.nanos();
+            assertTrue(prev < nanos);
+            prev = nanos;
+            maxDrift = Math.min(maxDrift, clock.getDriftNanos());
+        }
+        assertEquals(-2_000_000, maxDrift);
+        assertEquals(0, clock.getDriftNanos());
+        prev = clock.nanos();
+        assertEquals(wall.get(), prev);
+        // wall clock stepped forward by an hour, e.g. after a suspend: followed at the next re-anchoring
+        nanoTime.addAndGet(10_000_000);
+        wall.addAndGet(10_000_000 + 3_600_000_000_000L);
+        long stepped = clock.nanos();
+        assertTrue(prev < stepped);
+        assertEquals(wall.get(), stepped);
+        assertEquals(0, clock.getDriftNanos());
+    }
+
+    @Test
+    public void generatorThroughStepBackTest() {
+        AtomicLong wall = new AtomicLong(System.currentTimeMillis() * 1_000_000);
+        AtomicLong nanoTime = new AtomicLong(0);
+        NanoClock clock = new NanoClock(wallClock(wall), nanoTime::get, 100, 100_000);
+        MillisecondIdGenerator ig = new MillisecondIdGenerator(clock.getAsLong(), 0, 0, 12);
+        ig.setTimestampSupplier(clock);
+        long prev = 0;
+        for (int ms = 1; ms <= 3000; ms++) {
+            nanoTime.addAndGet(1_000_000);
+            wall.addAndGet(ms == 500 ? -200_000_000 : 1_000_000);
+            for (int i = 0; i < 100; i++) {
+                long id = ig.getId();
+                assertTrue(prev < id);
+                prev = id;
+            }
+            if (ms == 600) {
+                assertTrue(ig.getClockDriftMillis() < -100);
+                assertEquals(ig.getClockDriftMillis(), ig.getMetrics().getClockDriftMillis(), 1);
+            }
+        }
+        assertEquals(0, ig.getMetrics().getPastShiftEpisodes());
+        assertEquals(0, ig.getMetrics().getWaits());
+        assertEquals(0, ig.getClockDriftMillis());
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.aegisql.id_builder.impl;
+
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+public class PrefetchingIdSourceTest {
+
+    @Test
+    public void singleThreadTest() throws InterruptedException {
+        var ig = DecimalIdGenerator.idGenerator_10x8();
+        try (var source = new PrefetchingIdSource(ig, 1000)) {
+            assertEquals(1024, source.getCapacity());
+            Thread.sleep(100);
+            assertEquals(1024, source.size());
+            Set<Long> ids = ConcurrentHashMap.newKeySet();
+            for (int i = 0; i < 100000; i++) {
+                assertTrue(ids.add(source.getId()));
+            }
+            System.out.println(source + " fallbacks: " + source.getFallbacks());
+        }
+    }
+
+    @Test
+    public void multiThreadTest() throws InterruptedException {
+        final int threadCount = 8;
+        final int iterationsPerThread = 100000;
+        var ig = DecimalIdGenerator.idGenerator_10x8();
+        ig.setConcurrencyMode(ConcurrencyMode.LOCK_FREE);
+        try (var source = new PrefetchingIdSource(ig, 4096, 1024, 0, Thread.ofPlatform().daemon().factory())) {
+            ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+            CountDownLatch latch = new CountDownLatch(threadCount);
+            Set<Long> allResults = ConcurrentHashMap.newKeySet(threadCount * iterationsPerThread);
+            for (int i = 0; i < threadCount; i++) {
+                executorService.execute(() -> {
+                    for (int j = 0; j < iterationsPerThread; j++) {
+                        allResults.add(source.getId());
+                    }
+                    latch.countDown();
+                });
+            }
+            assertTrue(latch.await(10, TimeUnit.MINUTES));
+            executorService.shutdown();
+            assertEquals(threadCount * iterationsPerThread, allResults.size());
+            System.out.println("fallbacks: " + source.getFallbacks());
+        }
+    }
+
+    @Test
+    public void staleIdsTest() throws InterruptedException {
+        var ig = DecimalIdGenerator.idGenerator_10x8();
+        try (var source = new PrefetchingIdSource(ig, 100, 10, 50, Thread.ofVirtual().factory())) {
+            Thread.sleep(200);
+            long id = source.getId();
+            assertTrue(source.getDiscarded() > 0);
+            assertEquals(System.currentTimeMillis() / 1000, ig.parse(id).timestamp(), 1);
+        }
+    }
+
+    @Test
+    public void lowWaterMarkTest() throws InterruptedException {
+        var ig = DecimalIdGenerator.idGenerator_10x8();
+        try (var source = new PrefetchingIdSource(ig, 1024, 256, 0, Thread.ofVirtual().factory())) {
+            await(() -> source.size() == 1024);
+            for (int i = 0; i < 700; i++) {
+                source.getId();
+            }
+            Thread.sleep(100);
+            assertEquals(324, source.size());
+            assertEquals(1024, ig.getGlobalCounter());
+            for (int i = 0; i < 100; i++) {
+                source.getId();
+            }
+            await(() -> ig.getGlobalCounter() > 1024);
+            assertTrue(source.size() > 256);
+            assertEquals(0, source.getFallbacks());
+        }
+    }
+
+    @Test
+    public void bulkDiscardTest() throws InterruptedException {
+        var ig = DecimalIdGenerator.idGenerator_10x8();
+        try (var source = new PrefetchingIdSource(ig, 1024, 256, 50, Thread.ofVirtual().factory())) {
+            await(() -> source.size() == 1024);
+            Thread.sleep(200);
+            assertTrue(source.getDiscarded() >= 1024);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void fallbackTest() {
+        var ig = DecimalIdGenerator.idGenerator_10x8();
+        var source = new PrefetchingIdSource(ig, 16);
+        source.close();
+        long prev = 0;
+        for (int i = 0; i < 100; i++) {
+            long id = source.getId();
+            assertNotEquals(prev, id);
+            prev = id;
+        }
+        assertTrue(source.getFallbacks() > 0);
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.aegisql.id_builder.impl;
+
+import com.aegisql.id_builder.IdParts;
+import com.aegisql.id_builder.IdSourceException;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class SubMillisecondIdGeneratorTest {
+
+    @Test
+    public void basicIdTest() {
+        SubMillisecondIdGenerator ig = new SubMillisecondIdGenerator(5, 6);
+        AtomicLong prev = new AtomicLong();
+        long startUs = System.currentTimeMillis() * 1000;
+        ig.asStream().limit(1000000).forEach(id -> {
+            assertTrue(prev.get() < id);
+            assertEquals(5, ig.hostIdOf(id));
+            prev.set(id);
+        });
+        IdParts parts = ig.parse(prev.get());
+        assertEquals(TimeUnit.MICROSECONDS, parts.timeUnit());
+        assertEquals(0, parts.timestamp() % SubMillisecondIdGenerator.DEFAULT_TICK_MICROS);
+        assertTrue(parts.timestamp() >= startUs - 1000);
+        assertTrue(parts.timestamp() <= System.currentTimeMillis() * 1000 + 1000);
+    }
+
+    @Test
+    public void parseTest() {
+        SubMillisecondIdGenerator ig = new SubMillisecondIdGenerator(NanoClock.anchored(), 5, 3, 4, 10);
+        long tick = ig.getClock().nanos() / 5000;
+        long id = ig.buildId(tick, 1000);
+        IdParts parts = ig.parse(id);
+        assertEquals(tick * 5, parts.timestamp());
+        assertEquals(3, parts.hostId());
+        assertEquals(1000, parts.currentId());
+        DecimalIdGeneratorTest.assertBulkParse(ig, ig.asStream().limit(10000).toArray());
+    }
+
+    @Test
+    public void fromLastKnownIdTest() {
+        NanoClock clock = NanoClock.anchored();
+        SubMillisecondIdGenerator ig = new SubMillisecondIdGenerator(clock, 10, 7, 4, 8);
+        long lastId = ig.asStream().limit(100000).max().orElseThrow();
+        SubMillisecondIdGenerator restored = SubMillisecondIdGenerator.fromLastKnownId(lastId, clock, 10, 4, 8);
+        assertEquals(7, restored.getHostId());
+        for (int i = 0; i < 100000; i++) {
+            assertTrue(restored.getId() > lastId);
+        }
+    }
+
+    @Test
+    public void concurrentUniquenessTest() throws InterruptedException {
+        SubMillisecondIdGenerator ig = new SubMillisecondIdGenerator();
+        ig.setConcurrencyMode(ConcurrencyMode.LOCK_FREE);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    ids.add(ig.getId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(400000, ids.size());
+    }
+
+    @Test(expected = IdSourceException.class)
+    public void testTickException() {
+        new SubMillisecondIdGenerator(NanoClock.anchored(), 3, 0, 0, 8);
+    }
+
+    @Test(expected = IdSourceException.class)
+    public void testTimestampBitsException() {
+        // 1 us ticks leave no room in 34 bits
+        new SubMillisecondIdGenerator(NanoClock.anchored(), 1, 0, 21, 8);
+    }
+
+    @Test(expected = IdSourceException.class)
+    public void testShortLifetimeException() {
+        // 32 bits of 10 us ticks last about 12 hours
+        new SubMillisecondIdGenerator(NanoClock.anchored(), 10, 0, 23, 8);
+    }
+}
@@ -0,0 +1,51 @@
+package com.aegisql.id_builder.impl;
+
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class ThreadLocalIdSourceTest {
+
+    @Test
+    public void singleThreadTest() {
+        var ig = DecimalIdGenerator.idGenerator_10x4x5(1001);
+        var source = new ThreadLocalIdSource(ig, 100);
+        long prev = 0;
+        for (int i = 0; i < 100000; i++) {
+            long id = source.getId();
+            assertTrue(prev < id);
+            assertEquals(1001, ig.parse(id).hostId());
+            prev = id;
+        }
+        assertTrue(ig.getGlobalCounter() >= 100000);
+    }
+
+    @Test
+    public void virtualThreadsTest() throws InterruptedException {
+        final int threadCount = 1000;
+        final int iterationsPerThread = 1000;
+        var ig = DecimalIdGenerator.idGenerator_10x8();
+        var source = new ThreadLocalIdSource(ig, 64);
+        Set<Long> allResults = ConcurrentHashMap.newKeySet(threadCount * iterationsPerThread);
+        try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < threadCount; i++) {
+                executorService.execute(() -> {
+                    long prev = 0;
+                    for (int j = 0; j < iterationsPerThread; j++) {
+                        long id = source.getId();
+                        assertTrue(prev < id);
+                        prev = id;
+                        allResults.add(id);
+                    }
+                });
+            }
+        }
+        assertEquals(threadCount * iterationsPerThread, allResults.size());
+    }
+
+}
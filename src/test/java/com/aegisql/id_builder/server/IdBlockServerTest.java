@@ -0,0 +1,155 @@
+package com.aegisql.id_builder.server;
+
+import com.aegisql.id_builder.IdRange;
+import com.aegisql.id_builder.IdSourceException;
+import com.aegisql.id_builder.impl.DecimalIdGenerator;
+import com.aegisql.id_builder.impl.MillisecondIdGenerator;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class IdBlockServerTest {
+
+    private static Path socketPath() throws IOException {
+        Path dir = Files.createTempDirectory("id-block-server");
+        dir.toFile().deleteOnExit();
+        return dir.resolve("ids.sock");
+    }
+
+    @Test
+    public void singleClientTest() throws IOException {
+        Path path = socketPath();
+        var ig = new MillisecondIdGenerator(1, 4);
+        try (var server = new IdBlockServer(ig, path);
+             var client = new IdBlockClient(path, 10000)) {
+            long prev = 0;
+            for (int i = 0; i < 1000000; i++) {
+                long id = client.getId();
+                assertTrue(prev < id);
+                assertEquals(1, ig.hostIdOf(id));
+                prev = id;
+            }
+            assertTrue(server.getLeasedBlocks() >= 100);
+            assertEquals(1, server.getConnections());
+        }
+        assertFalse(Files.exists(path));
+    }
+
+    @Test
+    public void manyClientsTest() throws IOException, InterruptedException {
+        Path path = socketPath();
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        try (var server = new IdBlockServer(DecimalIdGenerator.idGenerator_10x8(1), path)) {
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            for (int t = 0; t < 4; t++) {
+                executor.execute(() -> {
+                    try (var client = new IdBlockClient(path, 1000)) {
+                        for (int i = 0; i < 100000; i++) {
+                            ids.add(client.getId());
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+            assertEquals(400000, ids.size());
+            assertTrue(server.getLeasedIds() >= 400000);
+        }
+    }
+
+    @Test
+    public void reserveTest() throws IOException {
+        Path path = socketPath();
+        try (var server = new IdBlockServer(new MillisecondIdGenerator(), path);
+             var client = new IdBlockClient(path, 100)) {
+            IdRange range = client.reserve(50000);
+            assertEquals(50000, range.size());
+            assertEquals(50000, range.stream().distinct().count());
+            assertTrue(range.get(0) < client.getId());
+            try {
+                client.reserve(Integer.MAX_VALUE);
+                fail("expected server error");
+            } catch (IdSourceException e) {
+                assertTrue(e.getMessage().contains("Block size"));
+            }
+            assertEquals(1, client.reserve(1).size());
+        }
+    }
+
+    @Test
+    public void badBlockSizeTest() throws IOException {
+        Path path = socketPath();
+        try (var server = new IdBlockServer(new MillisecondIdGenerator(), path);
+             var channel = SocketChannel.open(UnixDomainSocketAddress.of(path))) {
+            ByteBuffer buffer = ByteBuffer.allocate(1024);
+            for (int blockSize : new int[]{-1, -5, 0}) {
+                IdBlockProtocol.writeRequest(channel, buffer, blockSize);
+                try {
+                    IdBlockProtocol.readResponse(channel, buffer);
+                    fail("expected server error for " + blockSize);
+                } catch (IdSourceException e) {
+                    assertTrue(e.getMessage().contains("got " + blockSize));
+                }
+            }
+            IdBlockProtocol.writeRequest(channel, buffer, 10);
+            assertEquals(10, IdBlockProtocol.readResponse(channel, buffer).size());
+            assertEquals(1, server.getLeasedBlocks());
+        }
+    }
+
+    @Test(expected = IdSourceException.class)
+    public void noServerTest() throws IOException {
+        new IdBlockClient(socketPath(), 100);
+    }
+
+    @Test
+    public void staleSocketFileTest() throws IOException {
+        Path path = socketPath();
+        try (var stale = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            stale.bind(UnixDomainSocketAddress.of(path));
+        }
+        assertTrue(Files.exists(path));
+        try (var server = new IdBlockServer(new MillisecondIdGenerator(), path);
+             var client = new IdBlockClient(path, 10)) {
+            assertTrue(client.getId() > 0);
+        }
+        assertFalse(Files.exists(path));
+    }
+
+    @Test
+    public void liveServerTest() throws IOException {
+        Path path = socketPath();
+        try (var server = new IdBlockServer(new MillisecondIdGenerator(), path)) {
+            try {
+                new IdBlockServer(new MillisecondIdGenerator(), path);
+                fail("expected a live server");
+            } catch (IdSourceException e) {
+                assertTrue(e.getMessage().contains("Another ID block server"));
+            }
+            try (var client = new IdBlockClient(path, 10)) {
+                assertTrue(client.getId() > 0);
+            }
+        }
+    }
+
+    @Test(expected = IdSourceException.class)
+    public void socketFileExistsTest() throws IOException {
+        Path path = socketPath();
+        Files.createFile(path);
+        new IdBlockServer(new MillisecondIdGenerator(), path);
+    }
+}
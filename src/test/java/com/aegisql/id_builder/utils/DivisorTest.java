@@ -0,0 +1,60 @@
+package com.aegisql.id_builder.utils;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class DivisorTest {
+
+    private static void assertDivision(Divisor divisor, long n) {
+        long d = divisor.getDivisor();
+        assertEquals(d + " / " + n, n / d, divisor.divide(n));
+        assertEquals(d + " % " + n, n % d, divisor.remainder(n));
+    }
+
+    @Test
+    public void decimalBasesTest() {
+        var random = new SplittableRandom(42);
+        long pow = 1;
+        for (int i = 0; i <= 18; i++) {
+            var divisor = new Divisor(pow);
+            System.out.println(divisor);
+            assertFalse(divisor.isFallback());
+            for (long n : new long[]{0, 1, pow - 1, pow, pow + 1, Long.MAX_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE, -1, -pow}) {
+                assertDivision(divisor, n);
+            }
+            for (int j = 0; j < 100_000; j++) {
+                long n = random.nextLong();
+                assertDivision(divisor, n);
+                assertDivision(divisor, n >>> random.nextInt(64));
+            }
+            pow *= 10;
+        }
+    }
+
+    @Test
+    public void otherDivisorsTest() {
+        var random = new SplittableRandom(7);
+        long[] divisors = {2, 3, 7, 641, 1 << 20, 2147483647L, 2147483647L * 2147483647L, 1_000_000_007L, Long.MAX_VALUE, Long.MAX_VALUE / 3};
+        for (long d : divisors) {
+            var divisor = new Divisor(d);
+            System.out.println(divisor);
+            for (long n : new long[]{0, 1, d - 1, d, d + 1, Long.MAX_VALUE, Long.MIN_VALUE, -1}) {
+                assertDivision(divisor, n);
+            }
+            for (int j = 0; j < 100_000; j++) {
+                assertDivision(divisor, random.nextLong() >>> random.nextInt(64));
+            }
+        }
+        for (int j = 0; j < 1_000; j++) {
+            var divisor = new Divisor(1 + (random.nextLong() >>> random.nextInt(1, 64)));
+            for (int k = 0; k < 100; k++) {
+                assertDivision(divisor, random.nextLong() >>> random.nextInt(64));
+            }
+        }
+    }
+
+}